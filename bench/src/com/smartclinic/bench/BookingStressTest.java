@@ -0,0 +1,116 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.dao.DBConnection;
+import com.smartclinic.dao.Waitlist;
+import com.smartclinic.model.Appointment;
+import com.smartclinic.service.AppointmentService;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress test for double-booking on the embedded database: in each round, N patients book the same
+ * doctor, date and time slot at the same moment through AppointmentService.bookAppointment.
+ * Exactly one booking must succeed, the slot must hold exactly one appointment row, and the other
+ * N - 1 patients must be on the slot's waitlist. Exits with status 1 on the first violation.
+ *
+ * <pre>
+ * java -cp out:bench-out:h2.jar com.smartclinic.bench.BookingStressTest [bookers] [rounds]
+ * </pre>
+ */
+public final class BookingStressTest {
+
+    private BookingStressTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int bookers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        ClinicData.useEmbeddedDatabase();
+        // Keep the test's waitlist entries out of the application's log
+        if (System.getProperty("smartclinic.waitlist.log") == null) {
+            System.setProperty("smartclinic.waitlist.log",
+                    Files.createTempFile("booking-stress", ".log").toString());
+        }
+        ClinicData.seed(bookers);
+
+        AppointmentService service = new AppointmentService();
+        String doctorId = ClinicData.doctorId(0);
+        // Past the seeded appointments, one fresh day per round
+        LocalDate firstDay = ClinicData.FIRST_DAY.plusYears(1);
+        ExecutorService pool = Executors.newFixedThreadPool(bookers);
+        long start = System.nanoTime();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                LocalDate date = firstDay.plusDays(round);
+                LocalTime slot = ClinicData.SLOT_TIMES[round % ClinicData.SLOT_TIMES.length];
+                int booked = runRound(service, pool, bookers, doctorId, date, slot);
+
+                int rows = countRows(doctorId, date, slot);
+                int waiting = Waitlist.getInstance().getWaiting(doctorId, date, slot).size();
+                if (booked != 1 || rows != 1 || waiting != bookers - 1) {
+                    System.out.println("[✗] Round " + round + " (" + date + " " + slot + "): " + booked + " bookings succeeded, "
+                            + rows + " rows, " + waiting + " waitlisted; expected 1, 1 and " + (bookers - 1));
+                    System.exit(1);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.println("[✓] " + rounds + " rounds of " + bookers + " concurrent bookings: no double-booking ("
+                + (rounds * bookers * 1000L / Math.max(1, millis)) + " bookings/s)");
+        System.exit(0);
+    }
+
+    /**
+     * Starts every booker at once and waits for all of them.
+     * @return int The number of bookings that succeeded.
+     */
+    private static int runRound(AppointmentService service, ExecutorService pool, int bookers,
+                                String doctorId, LocalDate date, LocalTime slot) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < bookers; i++) {
+            Appointment appt = new Appointment(null, ClinicData.patientId(i), "", doctorId,
+                    ClinicData.ISSUES[0], date, slot, "Confirmed");
+            results.add(pool.submit(() -> {
+                go.await();
+                return service.bookAppointment(appt.getIssue(), appt);
+            }));
+        }
+        go.countDown();
+
+        int booked = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) booked++;
+        }
+        return booked;
+    }
+
+    private static int countRows(String doctorId, LocalDate date, LocalTime slot) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND date = ? AND time_slot = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, doctorId);
+            stmt.setObject(2, date);
+            stmt.setObject(3, slot);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.dao.UnitOfWork;
+import com.smartclinic.dao.Waitlist;
+import com.smartclinic.model.Appointment;
+import com.smartclinic.service.AppointmentService;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Checks on the embedded database that cancelling inside a {@link UnitOfWork} publishes the waitlist promotion
+ * and the freed slot only on commit: a rolled-back cancellation must leave the appointment, the waitlist and the
+ * slot's availability unchanged, and a committed one must hand the slot to the waitlisted patient.
+ * Exits with status 1 on the first failed check.
+ *
+ * <pre>
+ * java -cp out:bench-out:h2.jar com.smartclinic.bench.CancelRollbackTest
+ * </pre>
+ */
+public final class CancelRollbackTest {
+
+    private CancelRollbackTest() {}
+
+    public static void main(String[] args) throws Exception {
+        ClinicData.useEmbeddedDatabase();
+        // Keep the test's waitlist entries out of the application's log
+        if (System.getProperty("smartclinic.waitlist.log") == null) {
+            System.setProperty("smartclinic.waitlist.log",
+                    Files.createTempFile("cancel-rollback", ".log").toString());
+        }
+        ClinicData.seed(10);
+
+        AppointmentService service = new AppointmentService();
+        String doctorId = ClinicData.doctorId(0);
+        LocalDate date = ClinicData.FIRST_DAY.plusYears(1);
+        LocalTime slot = ClinicData.SLOT_TIMES[0];
+        Waitlist waitlist = Waitlist.getInstance();
+
+        Appointment booked = new Appointment(null, ClinicData.patientId(1), "", doctorId, ClinicData.ISSUES[0], date, slot, "Confirmed");
+        Appointment waiting = new Appointment(null, ClinicData.patientId(2), "", doctorId, ClinicData.ISSUES[0], date, slot, "Confirmed");
+        check("first booking succeeds", service.bookAppointment(booked.getIssue(), booked));
+        check("second booking is waitlisted", !service.bookAppointment(waiting.getIssue(), waiting));
+        check("patient is waiting", waitlist.getWaiting(doctorId, date, slot).equals(List.of(waiting.getPatientId())));
+
+        // Cancel without committing: close() rolls the unit of work back
+        UnitOfWork rolledBack = UnitOfWork.begin();
+        try {
+            check("cancel succeeds inside the unit of work", service.cancelAppointment(booked.getId()));
+        } finally {
+            rolledBack.close();
+        }
+        check("rolled-back cancel keeps the patient waiting",
+                waitlist.getWaiting(doctorId, date, slot).equals(List.of(waiting.getPatientId())));
+        Appointment kept = service.getAppointment(booked.getId());
+        check("rolled-back cancel keeps the appointment",
+                kept != null && booked.getPatientId().equals(kept.getPatientId()));
+        check("rolled-back cancel keeps the slot taken", !service.isDoctorAvailable(doctorId, date, slot));
+
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            check("cancel succeeds inside the unit of work", service.cancelAppointment(booked.getId()));
+            uow.commit();
+        }
+        check("committed cancel promotes the waiting patient", waitlist.getWaiting(doctorId, date, slot).isEmpty());
+        check("committed cancel removes the appointment", service.getAppointment(booked.getId()) == null);
+        check("committed cancel books the slot for the waiting patient", !service.isDoctorAvailable(doctorId, date, slot));
+
+        System.out.println("[✓] Cancellations publish waitlist and slot changes only on commit");
+        System.exit(0);
+    }
+
+    private static void check(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("[✗] Failed: " + what);
+            System.exit(1);
+        }
+    }
+}
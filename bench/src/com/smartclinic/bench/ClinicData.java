@@ -0,0 +1,130 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.dao.DBConnection;
+import com.smartclinic.dao.ImportResult;
+import com.smartclinic.service.AppointmentService;
+import com.smartclinic.service.DoctorService;
+import com.smartclinic.service.PatientService;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Seeds the embedded database with a synthetic clinic of a given size for the benchmarks.
+ * Rows are generated from a fixed seed, so every run and every fork sees the same data.
+ */
+final class ClinicData {
+
+    static final String[] FIRST_NAMES = {
+            "Aarav", "Diya", "Ishaan", "Meera", "Rohan", "Ananya", "Kabir", "Saanvi", "Vivaan", "Priya",
+            "Arjun", "Zara", "Dev", "Kiara", "Nikhil", "Tara", "Omar", "Lena", "Felix", "Chloe"
+    };
+    static final String[] LAST_NAMES = {
+            "Sharma", "Patel", "Iyer", "Khan", "Reddy", "Gupta", "Nair", "Singh", "Das", "Mehta",
+            "Smith", "Garcia", "Müller", "Rossi", "Novak", "Silva", "Kim", "Chen", "Okafor", "Dubois"
+    };
+    static final String[] ISSUES = {
+            "chest pain", "skin rash", "blurry vision", "knee joint pain", "tooth ache", "persistent cough",
+            "migraine", "fever", "stomach ache", "anxiety", "ear infection", "back pain"
+    };
+    static final String[] SPECIALIZATIONS = {
+            "Cardiologist", "Dermatologist", "Ophthalmologist", "Orthopedic", "Dentist",
+            "Pulmonologist", "Neurologist", "General Physician"
+    };
+    static final String[] SLOTS = {"09:00", "10:00", "11:00", "12:00", "14:00", "15:00", "16:00", "17:00"};
+    static final LocalTime[] SLOT_TIMES = Arrays.stream(SLOTS).map(LocalTime::parse).toArray(LocalTime[]::new);
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+    private ClinicData() {}
+
+    /**
+     * Selects the embedded database profile. Must run before the first DAO call of the JVM.
+     */
+    static void useEmbeddedDatabase() {
+        if (System.getProperty("smartclinic.db.profile") == null) {
+            System.setProperty("smartclinic.db.profile", "embedded");
+        }
+        // Keep the directory caches warm for the whole measurement
+        System.setProperty("smartclinic.patientDirectory.ttlSeconds", "86400");
+        System.setProperty("smartclinic.doctorDirectory.ttlSeconds", "86400");
+        System.setProperty("smartclinic.slotIndex.ttlSeconds", "86400");
+    }
+
+    /**
+     * Replaces the contents of the database with {@code patients} patients, one doctor per 50 patients
+     * (at least one per specialization) and one appointment per patient.
+     * @param patients The number of patients and appointments.
+     * @throws Exception If the tables cannot be cleared or an import fails.
+     */
+    static void seed(int patients) throws Exception {
+        clear();
+        Random random = new Random(42);
+        int doctors = Math.max(SPECIALIZATIONS.length, patients / 50);
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < doctors; i++) {
+            csv.append(doctorId(i)).append(',')
+                    .append("Dr. ").append(name(random)).append(',')
+                    .append(SPECIALIZATIONS[i % SPECIALIZATIONS.length]).append(",\"")
+                    .append(String.join(",", SLOTS)).append("\"\n");
+        }
+        check("doctors", new DoctorService().importDoctors(new StringReader(csv.toString()), false, 1000));
+
+        csv.setLength(0);
+        for (int i = 0; i < patients; i++) {
+            csv.append(patientId(i)).append(',')
+                    .append(name(random)).append(',')
+                    .append(1 + random.nextInt(90)).append(',')
+                    .append(9_000_000_000L + random.nextInt(1_000_000_000)).append(',')
+                    .append(random.nextBoolean() ? "Male" : "Female").append(',')
+                    .append(ISSUES[random.nextInt(ISSUES.length)]).append('\n');
+        }
+        check("patients", new PatientService().importPatients(new StringReader(csv.toString()), false, 1000));
+
+        // Fill slots doctor by doctor and day by day, so no two appointments share a slot
+        csv.setLength(0);
+        for (int i = 0; i < patients; i++) {
+            int slot = i % SLOTS.length;
+            int doctor = (i / SLOTS.length) % doctors;
+            int day = i / (SLOTS.length * doctors);
+            csv.append(appointmentId(i)).append(',')
+                    .append(patientId(i)).append(',')
+                    .append(doctorId(doctor)).append(',')
+                    .append(FIRST_DAY.plusDays(day)).append(',')
+                    .append(SLOTS[slot]).append(',')
+                    .append(ISSUES[i % ISSUES.length]).append(",Confirmed\n");
+        }
+        check("appointments", new AppointmentService().importAppointments(new StringReader(csv.toString()), false, 1000));
+    }
+
+    static String patientId(int i) { return "P" + i; }
+
+    static String doctorId(int i) { return "D" + i; }
+
+    static String appointmentId(int i) { return "A" + i; }
+
+    static String name(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static void clear() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM appointments");
+            stmt.executeUpdate("DELETE FROM patients");
+            stmt.executeUpdate("DELETE FROM doctors");
+        }
+    }
+
+    private static void check(String table, ImportResult result) {
+        if (!result.getErrors().isEmpty()) {
+            throw new IllegalStateException("Seeding " + table + " failed: " + result.getErrors().get(0));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.dao.AppointmentDAO;
+import com.smartclinic.dao.DoctorDAO;
+import com.smartclinic.dao.PatientDAO;
+import com.smartclinic.model.Appointment;
+import com.smartclinic.model.AppointmentFilter;
+import com.smartclinic.model.AppointmentList;
+import com.smartclinic.model.Doctor;
+import com.smartclinic.model.Patient;
+import com.smartclinic.model.PatientList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO read paths against the embedded database: point lookups, full loads, keyset pages,
+ * streaming, slot checks and the indexed appointment search.
+ * Point lookups also run with several threads to include contention on the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoReadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int patients;
+
+    private final PatientDAO patientDAO = new PatientDAO();
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final DoctorDAO doctorDAO = new DoctorDAO();
+
+    @Setup
+    public void setUp() throws Exception {
+        ClinicData.useEmbeddedDatabase();
+        ClinicData.seed(patients);
+    }
+
+    @Benchmark
+    public Patient patientById() {
+        return patientDAO.getPatientById(ClinicData.patientId(ThreadLocalRandom.current().nextInt(patients)));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Patient patientByIdContended() {
+        return patientById();
+    }
+
+    @Benchmark
+    public Doctor doctorById() {
+        int doctors = Math.max(ClinicData.SPECIALIZATIONS.length, patients / 50);
+        return DoctorDAO.getDoctorById(ClinicData.doctorId(ThreadLocalRandom.current().nextInt(doctors)));
+    }
+
+    @Benchmark
+    public PatientList allPatients() {
+        return patientDAO.getAllPatients();
+    }
+
+    @Benchmark
+    public AppointmentList allAppointments() {
+        return appointmentDAO.getAllAppointments();
+    }
+
+    @Benchmark
+    public AppointmentList firstAppointmentPage() {
+        return appointmentDAO.getAppointmentsPage(null, 200);
+    }
+
+    @Benchmark
+    public void streamAllAppointments(Blackhole bh) {
+        try (var stream = appointmentDAO.streamAppointments(500)) {
+            stream.forEach(bh::consume);
+        }
+    }
+
+    @Benchmark
+    public boolean slotAvailable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int doctors = Math.max(ClinicData.SPECIALIZATIONS.length, patients / 50);
+        return appointmentDAO.isSlotAvailable(ClinicData.doctorId(random.nextInt(doctors)),
+                ClinicData.FIRST_DAY.plusDays(random.nextInt(30)),
+                ClinicData.SLOT_TIMES[random.nextInt(ClinicData.SLOT_TIMES.length)]);
+    }
+
+    @Benchmark
+    public List<Appointment> searchByNamePrefix() {
+        return appointmentDAO.searchAppointments(new AppointmentFilter("Meera"));
+    }
+
+    @Benchmark
+    public List<Doctor> doctorsBySpecialization() {
+        return doctorDAO.getDoctorsBySpecialization("Cardiologist");
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.model.Patient;
+import com.smartclinic.model.PatientList;
+import com.smartclinic.util.CollationSorter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The patient name sort of PatientService.getPatientsSortedByName against the LinkedList bubble sort
+ * it replaced, on the same in-memory patients and without the DAO read. Needs no database.
+ * The bubble sort calls LinkedList.get and set inside its inner loop, so it grows roughly with n^3;
+ * it only runs at sizes where one call finishes within a measurement iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSortBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Current {
+        @Param({"1000", "10000", "100000"})
+        public int patients;
+
+        PatientList list;
+
+        @Setup
+        public void setUp() {
+            list = randomPatients(patients);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Baseline {
+        // 10,000 patients would take hours per call
+        @Param({"1000", "2000"})
+        public int patients;
+
+        PatientList list;
+
+        @Setup
+        public void setUp() {
+            list = randomPatients(patients);
+        }
+    }
+
+    @Benchmark
+    public List<Patient> collationSort(Current state) {
+        PatientList list = state.list;
+        return list.select(CollationSorter.sortedOrder(list.size(), list::getName));
+    }
+
+    @Benchmark
+    public List<Patient> bubbleSortBaseline(Baseline state) {
+        // The implementation replaced by the collation sort, kept as it was
+        LinkedList<Patient> patientsList = new LinkedList<>(state.list);
+        int n = patientsList.size();
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = 0; j < n - i - 1; j++) {
+                Patient p1 = patientsList.get(j);
+                Patient p2 = patientsList.get(j + 1);
+                if (p1.getName().compareToIgnoreCase(p2.getName()) > 0) {
+                    patientsList.set(j, p2);
+                    patientsList.set(j + 1, p1);
+                }
+            }
+        }
+        return patientsList;
+    }
+
+    private static PatientList randomPatients(int count) {
+        Random random = new Random(42);
+        PatientList list = new PatientList(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new Patient(ClinicData.patientId(i), ClinicData.name(random), 30, "9000000000", "Female",
+                    ClinicData.ISSUES[i % ClinicData.ISSUES.length]));
+        }
+        return list;
+    }
+}
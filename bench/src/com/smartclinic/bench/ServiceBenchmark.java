@@ -0,0 +1,83 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.model.Appointment;
+import com.smartclinic.model.Doctor;
+import com.smartclinic.model.Patient;
+import com.smartclinic.service.AppointmentService;
+import com.smartclinic.service.DoctorService;
+import com.smartclinic.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer hot paths: the name sorts of PatientService and DoctorService, the indexed name lookup
+ * of AppointmentService.searchByPatientName, the appointment sort and the linear issue scan.
+ * Each call includes the DAO read it starts with, as it does in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int patients;
+
+    private final PatientService patientService = new PatientService();
+    private final DoctorService doctorService = new DoctorService();
+    private final AppointmentService appointmentService = new AppointmentService();
+
+    // A patient name that exists, looked up by the binary search
+    private String existingName;
+
+    @Setup
+    public void setUp() throws Exception {
+        ClinicData.useEmbeddedDatabase();
+        ClinicData.seed(patients);
+        existingName = patientService.getPatient(ClinicData.patientId(patients / 2)).getName();
+    }
+
+    @Benchmark
+    public List<Patient> patientsSortedByName() {
+        return patientService.getPatientsSortedByName();
+    }
+
+    @Benchmark
+    public List<Doctor> doctorsSortedByName() {
+        return doctorService.getDoctorsSortedByName();
+    }
+
+    @Benchmark
+    public List<Appointment> appointmentsSortedByDateAndSlot() {
+        return appointmentService.getSortedAppointments();
+    }
+
+    @Benchmark
+    public Appointment searchByPatientName() {
+        return appointmentService.searchByPatientName(existingName);
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientsByIssue() {
+        return patientService.searchPatientsByIssue("migraine");
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientsAsYouType() {
+        return patientService.searchPatients("sharm");
+    }
+}
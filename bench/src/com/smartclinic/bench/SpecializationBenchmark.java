@@ -0,0 +1,57 @@
+package com.smartclinic.bench;
+
+import com.smartclinic.util.SpecializationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword matching of free-text issues in SpecializationMapper, by length of the issue text.
+ * Needs no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecializationBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int issueLength;
+
+    private String matching;
+    private String unmatched;
+
+    @Setup
+    public void setUp() {
+        // Filler words that contain no keyword, with the keyword at the very end
+        StringBuilder text = new StringBuilder();
+        while (text.length() < issueLength) {
+            text.append("patient reports feeling unwell since monday ");
+        }
+        text.setLength(Math.max(0, issueLength - "migraine".length()));
+        unmatched = text.toString();
+        matching = unmatched + "migraine";
+    }
+
+    @Benchmark
+    public String keywordAtEnd() {
+        return SpecializationMapper.getSpecialization(matching);
+    }
+
+    @Benchmark
+    public String noKeyword() {
+        return SpecializationMapper.getSpecialization(unmatched);
+    }
+}
@@ -8,15 +8,29 @@ CREATE TABLE IF NOT EXISTS patients (
   age     INT            NOT NULL,
   contact VARCHAR(15)    NOT NULL,
   gender  ENUM('Male','Female','Other') NOT NULL,
-  issue   VARCHAR(255)   NOT NULL
+  issue   VARCHAR(255)   NOT NULL,
+  -- Patient name prefix search in AppointmentDAO.searchAppointments
+  INDEX idx_patients_name (name)
 );
 
 -- Doctors (matches DoctorDAO’s INSERT/SELECT on `doctors`)
 CREATE TABLE IF NOT EXISTS doctors (
   id             VARCHAR(10)   PRIMARY KEY,
   name           VARCHAR(100)  NOT NULL,
-  specialization VARCHAR(100)  NOT NULL,
-  time_slots     TEXT
+  specialization VARCHAR(100)  NOT NULL
+);
+
+-- Doctor schedules, one row per weekly slot (matches DoctorDAO’s INSERT/SELECT on `doctor_slots`)
+CREATE TABLE IF NOT EXISTS doctor_slots (
+  doctor_id      VARCHAR(10)   NOT NULL,
+  -- ISO day of the week: 1 = Monday ... 7 = Sunday
+  day_of_week    TINYINT       NOT NULL,
+  -- Slot start in minutes since midnight, e.g. 540 = 09:00
+  start_minute   SMALLINT      NOT NULL,
+  PRIMARY KEY (doctor_id, day_of_week, start_minute),
+  CHECK (day_of_week BETWEEN 1 AND 7),
+  CHECK (start_minute BETWEEN 0 AND 1439),
+  FOREIGN KEY (doctor_id) REFERENCES doctors(id) ON DELETE CASCADE
 );
 
 -- Appointments (matches AppointmentDAO’s INSERT/SELECT on `appointments`)
@@ -25,8 +39,35 @@ CREATE TABLE IF NOT EXISTS appointments (
   patient_id    VARCHAR(10)   NOT NULL,
   doctor_id     VARCHAR(10)   NOT NULL,
   date          DATE          NOT NULL,
-  time_slot     VARCHAR(20),
+  time_slot     TIME          NOT NULL,
   status        VARCHAR(20),
+  issue         VARCHAR(255),
+  -- A doctor's slot can hold one appointment; AppointmentDAO relies on this key to reject double-booking.
+  -- It also serves lookups by doctor, doctor + date and doctor + date + slot.
+  UNIQUE KEY uq_appointments_doctor_slot (doctor_id, date, time_slot),
+  INDEX idx_appointments_patient (patient_id),
+  -- Keyset pagination order used by AppointmentDAO.getAppointmentsPage
+  INDEX idx_appointments_date_slot_id (date, time_slot, id),
   FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
   FOREIGN KEY (doctor_id)  REFERENCES doctors(id)  ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- ID sequences (matches IdAllocator’s SELECT/UPDATE on `id_sequences`).
+-- Each application instance reserves a block of values by advancing next_value, then hands them out in memory.
+CREATE TABLE IF NOT EXISTS id_sequences (
+  name          VARCHAR(32)   PRIMARY KEY,
+  next_value    BIGINT        NOT NULL
+);
+
+-- Existing databases: resolve any duplicate bookings first, then run
+-- ALTER TABLE appointments ADD COLUMN issue VARCHAR(255);
+-- ALTER TABLE appointments ADD UNIQUE KEY uq_appointments_doctor_slot (doctor_id, date, time_slot);
+-- ALTER TABLE appointments ADD INDEX idx_appointments_date_slot_id (date, time_slot, id);
+-- ALTER TABLE appointments ADD INDEX idx_appointments_patient (patient_id);
+-- ALTER TABLE patients ADD INDEX idx_patients_name (name);
+-- Doctor schedules: on startup the application creates doctor_slots and copies each doctor's
+-- doctors.time_slots into it (DoctorSlotMigration). Once that has run, the old column can be dropped:
+-- ALTER TABLE doctors DROP COLUMN time_slots;
+-- Appointment times: convert the old VARCHAR slots (e.g. '09:00') in place; rows without a slot must be fixed first.
+-- ALTER TABLE appointments MODIFY time_slot TIME NOT NULL;
+-- ID sequences: IdAllocator creates id_sequences on first use, and the sequence row when it first reserves a block.
@@ -1,20 +1,25 @@
 package com.smartclinic.app;
 
 import com.smartclinic.model.Appointment;
+import com.smartclinic.model.AvailableSlot;
 import com.smartclinic.model.Doctor;
 import com.smartclinic.model.Patient;
+import com.smartclinic.model.WeeklySchedule;
 import com.smartclinic.service.AppointmentService;
 import com.smartclinic.service.PatientService;
 import com.smartclinic.util.SpecializationMapper;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * AppointmentMenu is the class responsible for displaying the Appointment Management GUI.
@@ -25,6 +30,16 @@ public class AppointmentMenu {
     // Services to interact with the appointment and patient data
     private static final AppointmentService apptService = new AppointmentService();
     private static final PatientService patientService = new PatientService();
+    // Latest background load into the appointment table; a new load supersedes the previous one
+    private static final UiTasks.Latest<List<Appointment>> tableLoads = new UiTasks.Latest<>();
+    // Rows fetched per page while scrolling through all appointments
+    private static final int PAGE_SIZE = 200;
+    // Doctor choice that lets the booking pick the least busy matching doctor
+    private static final String ANY_DOCTOR = "Any available doctor (least busy)";
+    // Doctor choice that lists the earliest free slots of all matching doctors
+    private static final String EARLIEST_SLOT = "Earliest available slot";
+    // Number of free slots offered by the earliest-slot search
+    private static final int SLOT_SUGGESTIONS = 10;
 
     /**
      * Initializes and displays the Appointment Management menu.
@@ -38,8 +53,17 @@ public class AppointmentMenu {
         frame.setLayout(new BorderLayout());
 
         // Table setup for displaying appointments
-        DefaultTableModel model = new DefaultTableModel(
-                new String[]{"Appt ID", "Patient", "Doctor ID", "Issue", "Date", "Time", "Status"}, 0);
+        LazyTableModel<Appointment> model = new LazyTableModel<>(
+                new String[]{"Appt ID", "Patient", "Doctor ID", "Issue", "Date", "Time", "Status"},
+                (a, column) -> switch (column) {
+                    case 0 -> a.getId();
+                    case 1 -> a.getPatientName();
+                    case 2 -> a.getDoctorId();
+                    case 3 -> a.getIssue();
+                    case 4 -> a.getDate();
+                    case 5 -> a.getTimeSlot();
+                    default -> a.getStatus();
+                });
         JTable table = new JTable(model);
         refreshTable(model); // Populate the table with current appointments
 
@@ -77,15 +101,17 @@ public class AppointmentMenu {
             // Cancel selected appointment
             int row = table.getSelectedRow();
             if (row != -1) {
-                String apptId = (String) model.getValueAt(row, 0);
+                String apptId = model.getRow(row).getId();
                 int confirm = JOptionPane.showConfirmDialog(frame, "Cancel appointment " + apptId + "?");
                 if (confirm == JOptionPane.YES_OPTION) {
-                    if (apptService.cancelAppointment(apptId)) {
-                        JOptionPane.showMessageDialog(frame, "Cancelled.");
-                        refreshTable(model); // Refresh table after cancellation
-                    } else {
-                        JOptionPane.showMessageDialog(frame, "Failed to cancel.");
-                    }
+                    UiTasks.whenDone(apptService.cancelAppointmentAsync(apptId), cancelled -> {
+                        if (cancelled) {
+                            JOptionPane.showMessageDialog(frame, "Cancelled.");
+                            refreshTable(model); // Refresh table after cancellation
+                        } else {
+                            JOptionPane.showMessageDialog(frame, "Failed to cancel.");
+                        }
+                    });
                 }
             } else {
                 JOptionPane.showMessageDialog(frame, "Select an appointment to cancel.");
@@ -111,69 +137,51 @@ public class AppointmentMenu {
 
     /**
      * Refreshes the table to show the latest appointments.
+     * Appointments are fetched page by page with keyset pagination as the user scrolls.
      *
      * @param model The table model to refresh
      */
-    private static void refreshTable(DefaultTableModel model) {
-        model.setRowCount(0); // Clear current table content
-        List<Appointment> list = apptService.getAllAppointments(); // Retrieve all appointments
-        for (Appointment a : list) {
-            model.addRow(new Object[]{
-                    a.getId(), a.getPatientName(), a.getDoctorId(),
-                    a.getIssue(), a.getDate(), a.getTimeSlot(), a.getStatus()
-            });
-        }
+    private static void refreshTable(LazyTableModel<Appointment> model) {
+        tableLoads.cancel(); // A pending search or sort must not replace the fresh view
+        model.showPages(apptService::getAppointmentsPageAsync, PAGE_SIZE);
     }
 
     /**
      * Searches for appointments based on a query (case-insensitive).
+     * A new search supersedes one that is still running.
      *
-     * @param query The search query (patient, doctor, or date)
+     * @param query The search query (patient name prefix, doctor ID, or date / month / year)
      * @param model The table model to update with search results
      */
-    private static void searchAppointments(String query, DefaultTableModel model) {
-        model.setRowCount(0); // Clear current table
-
-        List<Appointment> list = apptService.getAllAppointments();
-        String lowerQuery = query.toLowerCase(); // Case-insensitive search
-
-        // Filter appointments based on query
-        List<Appointment> filteredList = list.stream()
-                .filter(a -> a.getPatientName().toLowerCase().contains(lowerQuery) ||
-                        a.getDoctorId().toLowerCase().contains(lowerQuery) ||
-                        a.getDate().toLowerCase().contains(lowerQuery))
-                .toList();
-
-        for (Appointment a : filteredList) {
-            model.addRow(new Object[]{
-                    a.getId(), a.getPatientName(), a.getDoctorId(),
-                    a.getIssue(), a.getDate(), a.getTimeSlot(), a.getStatus()
-            });
-        }
-
-        if (filteredList.isEmpty()) {
-            JOptionPane.showMessageDialog(null, "No appointments found.");
-        }
+    private static void searchAppointments(String query, LazyTableModel<Appointment> model) {
+        // Filtering happens in the database
+        loadTable(model, apptService.searchAppointmentsByAnyFieldAsync(query), true);
     }
 
     /**
-     * Sorts the appointments by date in ascending order.
+     * Sorts the appointments by date (and time slot) in ascending order.
      *
      * @param model The table model to update with sorted appointments
      */
-    private static void sortAppointments(DefaultTableModel model) {
-        model.setRowCount(0); // Clear current table
-        List<Appointment> list = apptService.getAllAppointments();
+    private static void sortAppointments(LazyTableModel<Appointment> model) {
+        loadTable(model, apptService.getSortedAppointmentsAsync(), false);
+    }
 
-        // Sort appointments by date
-        list.sort(Comparator.comparing(Appointment::getDate));
+    /**
+     * Fills the table once a background load completes, unless a newer load has started meanwhile.
+     *
+     * @param model The table model to fill
+     * @param load The background load of the appointments to display
+     * @param reportEmpty Whether to tell the user when nothing was found
+     */
+    private static void loadTable(LazyTableModel<Appointment> model, CompletableFuture<List<Appointment>> load, boolean reportEmpty) {
+        tableLoads.submit(load, list -> {
+            model.showAll(list); // One change event for the whole result
 
-        for (Appointment a : list) {
-            model.addRow(new Object[]{
-                    a.getId(), a.getPatientName(), a.getDoctorId(),
-                    a.getIssue(), a.getDate(), a.getTimeSlot(), a.getStatus()
-            });
-        }
+            if (reportEmpty && list.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "No appointments found.");
+            }
+        });
     }
 
     /**
@@ -181,19 +189,32 @@ public class AppointmentMenu {
      *
      * @param model The table model to refresh after booking an appointment
      */
-    private static void showBookingForm(DefaultTableModel model) {
+    private static void showBookingForm(LazyTableModel<Appointment> model) {
         String patientId = JOptionPane.showInputDialog("Enter Patient ID:");
         if (patientId == null || patientId.trim().isEmpty()) return;
 
-        Patient p = patientService.getPatient(patientId.trim());
-        if (p == null) {
-            JOptionPane.showMessageDialog(null, "Patient not found.");
-            return;
-        }
+        // Look up the patient and the matching doctors in the background
+        UiTasks.whenDone(patientService.getPatientAsync(patientId.trim()), p -> {
+            if (p == null) {
+                JOptionPane.showMessageDialog(null, "Patient not found.");
+                return;
+            }
+            UiTasks.whenDone(apptService.suggestDoctorsByIssueAsync(p.getIssue()),
+                    matchedDoctors -> showDoctorAndSlotForm(model, p, matchedDoctors));
+        });
+    }
 
+    /**
+     * Continues the booking form once the patient and the matching doctors are loaded:
+     * lets the user pick a doctor, date and time, then checks availability and books in the background.
+     *
+     * @param model The table model to refresh after booking an appointment
+     * @param p The patient being booked
+     * @param matchedDoctors The doctors whose specialization matches the patient's issue
+     */
+    private static void showDoctorAndSlotForm(LazyTableModel<Appointment> model, Patient p, List<Doctor> matchedDoctors) {
         String issue = p.getIssue();
         String specialization = SpecializationMapper.getSpecialization(issue);
-        List<Doctor> matchedDoctors = apptService.suggestDoctorsByIssue(issue);
 
         if (matchedDoctors.isEmpty()) {
             JOptionPane.showMessageDialog(null, "No doctors available for the issue: " + issue);
@@ -205,8 +226,9 @@ public class AppointmentMenu {
                 "Issue: " + issue + "\n" +
                 "Matching Specialization: " + specialization + "\n\n";
 
-        String[] doctorOptions = matchedDoctors.stream()
-                .map(doc -> doc.getName() + " (ID: " + doc.getId() + ") | " + doc.getSpecialization())
+        // The first options let the booking pick the doctor or the slot
+        String[] doctorOptions = Stream.concat(Stream.of(EARLIEST_SLOT, ANY_DOCTOR), matchedDoctors.stream()
+                .map(doc -> doc.getName() + " (ID: " + doc.getId() + ") | " + doc.getSpecialization()))
                 .toArray(String[]::new);
 
         String selectedDoctorStr = (String) JOptionPane.showInputDialog(
@@ -219,6 +241,14 @@ public class AppointmentMenu {
                 doctorOptions[0]);
 
         if (selectedDoctorStr == null) return;
+        if (EARLIEST_SLOT.equals(selectedDoctorStr)) {
+            showEarliestSlotForm(model, p, specialization);
+            return;
+        }
+        if (ANY_DOCTOR.equals(selectedDoctorStr)) {
+            showAnyDoctorSlotForm(model, p, matchedDoctors);
+            return;
+        }
 
         Doctor selectedDoctor = matchedDoctors.stream()
                 .filter(doc -> selectedDoctorStr.contains(doc.getId()))
@@ -230,33 +260,158 @@ public class AppointmentMenu {
             return;
         }
 
-        String timeSlots = selectedDoctor.getTimeSlots();
-        String date = JOptionPane.showInputDialog("Enter preferred date (YYYY-MM-DD):");
-        if (!date.matches("\\d{4}-\\d{2}-\\d{2}")) {
+        LocalDate day = parseDate(JOptionPane.showInputDialog("Enter preferred date (YYYY-MM-DD):"));
+        if (day == null) {
+            JOptionPane.showMessageDialog(null, "Invalid date format.");
+            return;
+        }
+
+        String timeSlots = selectedDoctor.getSchedule().slotsOn(day.getDayOfWeek());
+        if (timeSlots.isEmpty()) {
+            JOptionPane.showMessageDialog(null, "The doctor has no slots on " + day.getDayOfWeek() + ".");
+            return;
+        }
+        LocalTime timeSlot = parseTime(JOptionPane.showInputDialog("Enter time slot (Available: " + timeSlots + "):"));
+        if (timeSlot == null || !apptService.isTimeSlotValid(selectedDoctor, day, timeSlot)) {
+            JOptionPane.showMessageDialog(null, "Invalid time slot.");
+            return;
+        }
+
+        UiTasks.whenDone(apptService.isDoctorAvailableAsync(selectedDoctor.getId(), day, timeSlot), available -> {
+            if (!available) {
+                JOptionPane.showMessageDialog(null, "Doctor is not available at this time.");
+                return;
+            }
+
+            // The ID is allocated when the appointment is saved
+            Appointment a = new Appointment(null, p.getId(), p.getName(),
+                    selectedDoctor.getId(), issue, day, timeSlot, "Confirmed");
+
+            UiTasks.whenDone(apptService.bookAppointmentAsync(issue, a), booked -> {
+                if (booked) {
+                    JOptionPane.showMessageDialog(null, "Appointment booked. ID: " + a.getId());
+                    refreshTable(model);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Booking failed. Try again.");
+                }
+            });
+        });
+    }
+
+    /**
+     * Books with whichever matching doctor is least busy on the chosen day and has the chosen slot free.
+     *
+     * @param model The table model to refresh after booking an appointment
+     * @param p The patient being booked
+     * @param matchedDoctors The doctors whose specialization matches the patient's issue
+     */
+    private static void showAnyDoctorSlotForm(LazyTableModel<Appointment> model, Patient p, List<Doctor> matchedDoctors) {
+        LocalDate day = parseDate(JOptionPane.showInputDialog("Enter preferred date (YYYY-MM-DD):"));
+        if (day == null) {
             JOptionPane.showMessageDialog(null, "Invalid date format.");
             return;
         }
 
-        String timeSlot = JOptionPane.showInputDialog("Enter time slot (Available: " + timeSlots + "):");
-        if (timeSlot == null || !apptService.isTimeSlotValid(selectedDoctor, timeSlot)) {
+        // Offer every slot of any matching doctor on that day of the week
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        String timeSlots = matchedDoctors.stream()
+                .map(Doctor::getSchedule)
+                .flatMapToInt(s -> IntStream.range(0, s.slotCount(dayOfWeek)).map(i -> s.slotAt(dayOfWeek, i)))
+                .distinct()
+                .sorted()
+                .mapToObj(WeeklySchedule::format)
+                .collect(Collectors.joining(","));
+        if (timeSlots.isEmpty()) {
+            JOptionPane.showMessageDialog(null, "No matching doctor has slots on " + dayOfWeek + ".");
+            return;
+        }
+        LocalTime timeSlot = parseTime(JOptionPane.showInputDialog("Enter time slot (Available: " + timeSlots + "):"));
+        if (timeSlot == null || matchedDoctors.stream().noneMatch(doc -> apptService.isTimeSlotValid(doc, day, timeSlot))) {
             JOptionPane.showMessageDialog(null, "Invalid time slot.");
             return;
         }
 
-        if (!apptService.isDoctorAvailable(selectedDoctor.getId(), date, timeSlot)) {
-            JOptionPane.showMessageDialog(null, "Doctor is not available at this time.");
+        // The ID is allocated when the appointment is saved
+        Appointment a = new Appointment(null, p.getId(), p.getName(), null, p.getIssue(), day, timeSlot, "Confirmed");
+
+        UiTasks.whenDone(apptService.bookAppointmentAsync(p.getIssue(), a), booked -> {
+            if (booked) {
+                JOptionPane.showMessageDialog(null, "Appointment booked with doctor " + a.getDoctorId() + ". ID: " + a.getId());
+                refreshTable(model);
+            } else {
+                JOptionPane.showMessageDialog(null, "No doctor could be booked. If every slot was taken, the patient was added to the waitlist.");
+            }
+        });
+    }
+
+    /**
+     * Lists the earliest free slots of all doctors of the specialization and books the one the user picks.
+     *
+     * @param model The table model to refresh after booking an appointment
+     * @param p The patient being booked
+     * @param specialization The specialization matching the patient's issue
+     */
+    private static void showEarliestSlotForm(LazyTableModel<Appointment> model, Patient p, String specialization) {
+        LocalDate from = parseDate(JOptionPane.showInputDialog("Search from date (YYYY-MM-DD):", LocalDate.now().toString()));
+        if (from == null) {
+            JOptionPane.showMessageDialog(null, "Invalid date format.");
             return;
         }
 
-        String apptId = "A" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        Appointment a = new Appointment(apptId, p.getId(), p.getName(),
-                selectedDoctor.getId(), issue, date, timeSlot, "Confirmed");
+        UiTasks.whenDone(apptService.findNextAvailableSlotsAsync(specialization, from, SLOT_SUGGESTIONS), slots -> {
+            if (slots.isEmpty()) {
+                JOptionPane.showMessageDialog(null, "No free slots found for " + specialization + ".");
+                return;
+            }
 
-        if (apptService.bookAppointment(issue, a)) {
-            JOptionPane.showMessageDialog(null, "Appointment booked. ID: " + apptId);
-            refreshTable(model);
-        } else {
-            JOptionPane.showMessageDialog(null, "Booking failed. Try again.");
+            AvailableSlot slot = (AvailableSlot) JOptionPane.showInputDialog(
+                    null,
+                    "Earliest free slots for " + specialization + ":",
+                    "Choose Slot",
+                    JOptionPane.PLAIN_MESSAGE,
+                    null,
+                    slots.toArray(),
+                    slots.get(0));
+            if (slot == null) return;
+
+            // The ID is allocated when the appointment is saved
+            Appointment a = new Appointment(null, p.getId(), p.getName(), slot.getDoctorId(), p.getIssue(),
+                    slot.getDate(), slot.getTimeSlot(), "Confirmed");
+
+            UiTasks.whenDone(apptService.bookAppointmentAsync(p.getIssue(), a), booked -> {
+                if (booked) {
+                    JOptionPane.showMessageDialog(null, "Appointment booked. ID: " + a.getId());
+                    refreshTable(model);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Booking failed. If the slot was just taken, the patient was added to its waitlist.");
+                }
+            });
+        });
+    }
+
+    /**
+     * Parses a date entered as YYYY-MM-DD.
+     *
+     * @param date The entered text
+     * @return LocalDate The date, or null if the text is missing or not a valid date
+     */
+    private static LocalDate parseDate(String date) {
+        if (date == null || !date.matches("\\d{4}-\\d{2}-\\d{2}")) return null;
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
         }
     }
+
+    /**
+     * Parses a time slot entered as H:mm or HH:mm.
+     *
+     * @param time The entered text
+     * @return LocalTime The time, or null if the text is missing or not a valid time
+     */
+    private static LocalTime parseTime(String time) {
+        int minute = WeeklySchedule.minuteOf(time);
+        return minute < 0 ? null : LocalTime.of(minute / 60, minute % 60);
+    }
 }
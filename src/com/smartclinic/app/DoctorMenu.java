@@ -1,18 +1,23 @@
 package com.smartclinic.app;
 
 import com.smartclinic.model.Doctor;
+import com.smartclinic.model.WeeklySchedule;
 import com.smartclinic.service.DoctorService;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 public class DoctorMenu {
 
     // Instance of the DoctorService for managing doctor-related operations
     private static final DoctorService service = new DoctorService();
+    // Latest background load into the doctor table; a new load supersedes the previous one
+    private static final UiTasks.Latest<List<Doctor>> tableLoads = new UiTasks.Latest<>();
 
     /**
      * Shows the Doctor Management menu GUI.
@@ -45,33 +50,47 @@ public class DoctorMenu {
 
         // Search button action: Filters doctors based on input text
         searchBtn.addActionListener(e -> {
-            String input = searchField.getText().trim().toLowerCase();
+            String input = searchField.getText().trim();
             if (input.isEmpty()) {
                 refreshDoctorTable(model);  // If search is empty, display all doctors
             } else {
-                // Filter doctors by ID, name, or specialization
-                List<Doctor> results = service.getAllDoctors().stream()
-                        .filter(d -> d.getId().toLowerCase().contains(input) ||
-                                d.getName().toLowerCase().contains(input) ||
-                                d.getSpecialization().toLowerCase().contains(input))
-                        .collect(Collectors.toList());
-
-                // Show message if no results match
-                if (results.isEmpty()) {
-                    JOptionPane.showMessageDialog(frame, "No matching doctors found.", "No Results", JOptionPane.INFORMATION_MESSAGE);
-                }
+                // Ranked matches on ID, name, or specialization from the in-memory index
+                tableLoads.submit(service.searchDoctorsAsync(input), results -> {
+                    // Show message if no results match
+                    if (results.isEmpty()) {
+                        JOptionPane.showMessageDialog(frame, "No matching doctors found.", "No Results", JOptionPane.INFORMATION_MESSAGE);
+                    }
 
-                // Update table with filtered results
-                refreshDoctorTable(model, results);
+                    // Update table with filtered results
+                    refreshDoctorTable(model, results);
+                });
             }
         });
 
-        // Sort button action: Sort doctors by name
-        sortBtn.addActionListener(e -> {
-            List<Doctor> sorted = service.getDoctorsSortedByName();
-            refreshDoctorTable(model, sorted);
+        // Search as you type, without the no-results dialog
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { searchAsYouType(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchAsYouType(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchAsYouType(); }
+
+            private void searchAsYouType() {
+                String input = searchField.getText().trim();
+                if (input.isEmpty()) {
+                    refreshDoctorTable(model);
+                } else {
+                    loadDoctorTable(model, service.searchDoctorsAsync(input));
+                }
+            }
         });
 
+        // Sort button action: Sort doctors by name
+        sortBtn.addActionListener(e -> loadDoctorTable(model, service.getDoctorsSortedByNameAsync()));
+
         // ----- Bottom Panel: Action Buttons -----
         JPanel buttonPanel = new JPanel();
         JButton addBtn = new JButton("Add Doctor");
@@ -95,10 +114,11 @@ public class DoctorMenu {
             int selected = table.getSelectedRow();
             if (selected != -1) {
                 String id = (String) model.getValueAt(selected, 0);
-                Doctor doc = service.getDoctor(id);
-                if (doc != null) {
-                    showUpdateDoctorForm(model, doc);  // Show update form for selected doctor
-                }
+                UiTasks.whenDone(service.getDoctorAsync(id), doc -> {
+                    if (doc != null) {
+                        showUpdateDoctorForm(model, doc);  // Show update form for selected doctor
+                    }
+                });
             } else {
                 JOptionPane.showMessageDialog(frame, "Select a doctor to update.", "Selection Required", JOptionPane.WARNING_MESSAGE);
             }
@@ -111,12 +131,14 @@ public class DoctorMenu {
                 String id = (String) model.getValueAt(selected, 0);
                 int confirm = JOptionPane.showConfirmDialog(frame, "Delete doctor " + id + "?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
-                    if (service.deleteDoctor(id)) {
-                        JOptionPane.showMessageDialog(frame, "Doctor deleted.");
-                        refreshDoctorTable(model);  // Refresh table after deletion
-                    } else {
-                        JOptionPane.showMessageDialog(frame, "Failed to delete.", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    UiTasks.whenDone(service.deleteDoctorAsync(id), deleted -> {
+                        if (deleted) {
+                            JOptionPane.showMessageDialog(frame, "Doctor deleted.");
+                            refreshDoctorTable(model);  // Refresh table after deletion
+                        } else {
+                            JOptionPane.showMessageDialog(frame, "Failed to delete.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    });
                 }
             } else {
                 JOptionPane.showMessageDialog(frame, "Select a doctor to delete.", "Selection Required", JOptionPane.WARNING_MESSAGE);
@@ -140,11 +162,20 @@ public class DoctorMenu {
     }
 
     /**
-     * Refreshes the doctor table with the current list of doctors.
+     * Refreshes the doctor table with the current list of doctors, loaded in the background.
      * @param model the table model
      */
     private static void refreshDoctorTable(DefaultTableModel model) {
-        refreshDoctorTable(model, service.getAllDoctors());
+        loadDoctorTable(model, service.getAllDoctorsAsync());
+    }
+
+    /**
+     * Refreshes the doctor table once a background load completes, unless a newer load has started meanwhile.
+     * @param model the table model
+     * @param load the background load of the doctors to display
+     */
+    private static void loadDoctorTable(DefaultTableModel model, CompletableFuture<List<Doctor>> load) {
+        tableLoads.submit(load, list -> refreshDoctorTable(model, list));
     }
 
     /**
@@ -187,10 +218,6 @@ public class DoctorMenu {
                 JOptionPane.showMessageDialog(null, "Doctor ID cannot be empty.", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            if (service.getDoctor(id) != null) {
-                JOptionPane.showMessageDialog(null, "Doctor ID already exists.", "Duplicate ID", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
             if (!name.matches("[A-Za-z_. ]+")) {
                 JOptionPane.showMessageDialog(null, "Invalid name. Only letters and spaces allowed.", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -200,17 +227,25 @@ public class DoctorMenu {
                 return;
             }
             if (isInvalidTimeSlots(slots)) {
-                JOptionPane.showMessageDialog(null, "Invalid time slot format. Use HH:mm separated by commas.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(null, "Invalid time slot format. Use HH:mm separated by commas, optionally per day (e.g. MON-FRI 09:00,10:00; SAT 10:00).", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
             Doctor d = new Doctor(id, name, spec, slots);
-            if (service.addDoctor(d)) {
-                JOptionPane.showMessageDialog(null, "Doctor added.");
-                refreshDoctorTable(model);
-            } else {
-                JOptionPane.showMessageDialog(null, "Failed to add doctor.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.whenDone(service.getDoctorAsync(id), existing -> {
+                if (existing != null) {
+                    JOptionPane.showMessageDialog(null, "Doctor ID already exists.", "Duplicate ID", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                UiTasks.whenDone(service.addDoctorAsync(d), added -> {
+                    if (added) {
+                        JOptionPane.showMessageDialog(null, "Doctor added.");
+                        refreshDoctorTable(model);
+                    } else {
+                        JOptionPane.showMessageDialog(null, "Failed to add doctor.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            });
         }
     }
 
@@ -246,32 +281,28 @@ public class DoctorMenu {
                 return;
             }
             if (isInvalidTimeSlots(slots)) {
-                JOptionPane.showMessageDialog(null,  "Invalid time slot format. Use HH:mm format separated by commas.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(null,  "Invalid time slot format. Use HH:mm separated by commas, optionally per day (e.g. MON-FRI 09:00,10:00; SAT 10:00).", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
             Doctor updated = new Doctor(existing.getId(), name, spec, slots);
-            if (service.updateDoctor(updated)) {
-                JOptionPane.showMessageDialog(null, "Doctor updated.");
-                refreshDoctorTable(model);
-            } else {
-                JOptionPane.showMessageDialog(null, "Failed to update.", "Update Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.whenDone(service.updateDoctorAsync(updated), saved -> {
+                if (saved) {
+                    JOptionPane.showMessageDialog(null, "Doctor updated.");
+                    refreshDoctorTable(model);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Failed to update.", "Update Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
     /**
-     * Validates the time slots input to ensure the format is correct.
+     * Checks the time slots input, e.g. "09:00,10:00" or "MON-FRI 09:00,10:00; SAT 10:00".
      * @param input the time slots input string
-     * @return true if the format is valid, false otherwise
+     * @return true if the input is not a valid schedule, false otherwise
      */
     private static boolean isInvalidTimeSlots(String input) {
-        String[] slots = input.split(",");
-        for (String slot : slots) {
-            if (!slot.trim().matches("^([01]?\\d|2[0-3]):[0-5]\\d$")) {
-                return false;  // found an invalid time slot
-            }
-        }
-        return true;  // all time slots are valid
+        return !WeeklySchedule.isValid(input);
     }
 }
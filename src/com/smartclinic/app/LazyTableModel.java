@@ -0,0 +1,160 @@
+package com.smartclinic.app;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Table model that reads cells straight from a list of entities instead of copying every row into an Object[].
+ * It either shows a fetched list as is, firing a single change event, or pulls pages from a cursor as the
+ * user scrolls: when a row near the end of the loaded rows is painted, the next page is fetched in the
+ * background and appended with one insert event, so opening a table of any size only costs the first page.
+ * Only used from the Event Dispatch Thread.
+ *
+ * @param <T> The entity type shown in each row.
+ */
+class LazyTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Reads the value of one cell from an entity.
+     */
+    @FunctionalInterface
+    interface CellReader<T> {
+        Object read(T row, int column);
+    }
+
+    /**
+     * Fetches the page of rows that follows a given row, in the background.
+     */
+    @FunctionalInterface
+    interface PageLoader<T> {
+        CompletableFuture<List<T>> load(T after, int pageSize);
+    }
+
+    private final String[] columns;
+    // The model is never serialized; the reader, rows and loader are transient so Swing's Serializable contract holds
+    private final transient CellReader<T> cells;
+
+    private transient List<T> rows = List.of();
+    // Set while showing a paged cursor, null while showing a fixed list
+    private transient PageLoader<T> pages;
+    private int pageSize;
+    private boolean loading;
+    private boolean exhausted = true;
+    // Incremented on every reset, so pages requested for earlier contents are dropped
+    private int generation;
+
+    // Entity of the row read last; JTable paints cell by cell along a row, so this saves a get() per cell
+    private int cachedRow = -1;
+    private transient T cachedEntity;
+
+    /**
+     * Creates an empty model.
+     * @param columns The column names.
+     * @param cells Reads a cell value from a row entity.
+     */
+    LazyTableModel(String[] columns, CellReader<T> cells) {
+        this.columns = columns.clone();
+        this.cells = cells;
+    }
+
+    /**
+     * Shows a fetched list without copying it. The list must not be modified afterwards.
+     * @param list The rows to show.
+     */
+    void showAll(List<T> list) {
+        reset(list, null, 0);
+        exhausted = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows the rows of a paged cursor, loading the first page now and later pages as the user scrolls.
+     * @param loader Fetches the page after a row (null for the first page).
+     * @param pageSize Number of rows per page.
+     */
+    void showPages(PageLoader<T> loader, int pageSize) {
+        reset(new ArrayList<>(), loader, pageSize);
+        exhausted = false;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    /**
+     * Gets the entity shown in a row.
+     * @param row The row index.
+     * @return T The entity.
+     */
+    T getRow(int row) {
+        if (row != cachedRow) {
+            cachedEntity = rows.get(row);
+            cachedRow = row;
+        }
+        return cachedEntity;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        // Prefetch once the user scrolls into the last half page of the loaded rows
+        if (!exhausted && rowIndex >= rows.size() - Math.max(1, pageSize / 2)) {
+            loadNextPage();
+        }
+        return cells.read(getRow(rowIndex), columnIndex);
+    }
+
+    private void reset(List<T> list, PageLoader<T> loader, int size) {
+        generation++;
+        rows = list;
+        pages = loader;
+        pageSize = size;
+        loading = false;
+        cachedRow = -1;
+        cachedEntity = null;
+    }
+
+    /**
+     * Requests the next page in the background unless one is already on its way.
+     */
+    private void loadNextPage() {
+        if (loading || exhausted || pages == null) return;
+        loading = true;
+        int requested = generation;
+        T after = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        pages.load(after, pageSize).whenCompleteAsync((page, error) -> {
+            if (requested != generation) return;  // The table was reset meanwhile
+            loading = false;
+            if (error != null) {
+                System.out.println("[✗] Error loading table page: " + error.getMessage());
+                exhausted = true;
+                return;
+            }
+            if (page.size() < pageSize) {
+                exhausted = true;
+            }
+            if (!page.isEmpty()) {
+                int first = rows.size();
+                rows.addAll(page);
+                fireTableRowsInserted(first, rows.size() - 1);
+            }
+        }, UiTasks.EDT);
+    }
+}
@@ -4,10 +4,11 @@ import com.smartclinic.model.Patient;
 import com.smartclinic.service.PatientService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The PatientMenu class provides the graphical user interface for managing patients
@@ -18,6 +19,8 @@ public class PatientMenu {
 
     // PatientService is used for handling patient data
     private static final PatientService service = new PatientService();
+    // Latest background load into the patient table; a new load supersedes the previous one
+    private static final UiTasks.Latest<List<Patient>> tableLoads = new UiTasks.Latest<>();
 
     /**
      * Displays the Patient Management menu.
@@ -32,9 +35,16 @@ public class PatientMenu {
 
         // Table setup for displaying patient data
         String[] columns = {"ID", "Name", "Age", "Contact", "Gender", "Issue"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+        LazyTableModel<Patient> model = new LazyTableModel<>(columns, (p, column) -> switch (column) {
+            case 0 -> p.getId();
+            case 1 -> p.getName();
+            case 2 -> p.getAge();
+            case 3 -> p.getContact();
+            case 4 -> p.getGender();
+            default -> p.getIssue();
+        });
         JTable table = new JTable(model);
-        refreshPatientTable(model, service.getAllPatients()); // Initial data refresh
+        loadPatientTable(model, service.getAllPatientsAsync()); // Initial data refresh
 
         // ----- Top Panel: Search Section -----
         JPanel searchPanel = new JPanel();
@@ -45,19 +55,25 @@ public class PatientMenu {
         searchPanel.add(searchField);
         searchPanel.add(searchBtn);
 
-        // Search functionality
-        searchBtn.addActionListener(e -> {
-            String query = searchField.getText().trim().toLowerCase();
+        // Search functionality, also run on every keystroke
+        Runnable search = () -> {
+            String query = searchField.getText().trim();
             if (query.isEmpty()) {
-                refreshPatientTable(model, service.getAllPatients()); // Show all patients if query is empty
+                loadPatientTable(model, service.getAllPatientsAsync()); // Show all patients if query is empty
             } else {
-                List<Patient> results = service.getAllPatients().stream()
-                        .filter(p -> p.getName().toLowerCase().contains(query)
-                                || p.getId().toLowerCase().contains(query)
-                                || p.getIssue().toLowerCase().contains(query))
-                        .collect(Collectors.toList());
-                refreshPatientTable(model, results); // Update table with search results
+                loadPatientTable(model, service.searchPatientsAsync(query)); // Ranked results from the in-memory index
             }
+        };
+        searchBtn.addActionListener(e -> search.run());
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { search.run(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { search.run(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { search.run(); }
         });
 
         // ----- Bottom Panel: CRUD Buttons -----
@@ -78,7 +94,7 @@ public class PatientMenu {
      * @param table The table that holds patient data.
      * @return A JPanel containing the action buttons.
      */
-    private static JPanel createPatientMenuPanel(JFrame frame, DefaultTableModel model, JTable table) {
+    private static JPanel createPatientMenuPanel(JFrame frame, LazyTableModel<Patient> model, JTable table) {
         JPanel panel = new JPanel();
 
         // Create action buttons
@@ -104,9 +120,12 @@ public class PatientMenu {
         updateBtn.addActionListener(e -> {
             int selected = table.getSelectedRow();
             if (selected != -1) {
-                String id = (String) model.getValueAt(selected, 0);
-                Patient patient = service.getPatient(id);
-                showUpdatePatientForm(model, patient); // Show Update form
+                String id = model.getRow(selected).getId();
+                UiTasks.whenDone(service.getPatientAsync(id), patient -> {
+                    if (patient != null) {
+                        showUpdatePatientForm(model, patient); // Show Update form
+                    }
+                });
             } else {
                 JOptionPane.showMessageDialog(frame, "Select a patient to update.");
             }
@@ -115,15 +134,17 @@ public class PatientMenu {
         deleteBtn.addActionListener(e -> {
             int selected = table.getSelectedRow();
             if (selected != -1) {
-                String id = (String) model.getValueAt(selected, 0);
+                String id = model.getRow(selected).getId();
                 int confirm = JOptionPane.showConfirmDialog(frame, "Delete patient " + id + "?");
                 if (confirm == JOptionPane.YES_OPTION) {
-                    if (service.deletePatient(id)) {
-                        JOptionPane.showMessageDialog(frame, "Patient deleted.");
-                        refreshPatientTable(model, service.getAllPatients()); // Refresh table
-                    } else {
-                        JOptionPane.showMessageDialog(frame, "Deletion failed.");
-                    }
+                    UiTasks.whenDone(service.deletePatientAsync(id), deleted -> {
+                        if (deleted) {
+                            JOptionPane.showMessageDialog(frame, "Patient deleted.");
+                            loadPatientTable(model, service.getAllPatientsAsync()); // Refresh table
+                        } else {
+                            JOptionPane.showMessageDialog(frame, "Deletion failed.");
+                        }
+                    });
                 }
             } else {
                 JOptionPane.showMessageDialog(frame, "Select a patient to delete.");
@@ -131,8 +152,7 @@ public class PatientMenu {
         });
 
         sortBtn.addActionListener(e -> {
-            List<Patient> sorted = service.getPatientsSortedByName(); // Sort patients by name
-            refreshPatientTable(model, sorted);
+            loadPatientTable(model, service.getPatientsSortedByNameAsync()); // Sort patients by name
         });
 
         searchBtn.addActionListener(e -> {
@@ -140,19 +160,22 @@ public class PatientMenu {
             if (keyword != null && !keyword.trim().isEmpty()) {
                 String lowerKeyword = keyword.trim().toLowerCase();
 
-                List<Patient> filtered = service.getAllPatients().stream()
-                        .filter(p -> p.getIssue() != null && p.getIssue().toLowerCase().contains(lowerKeyword))
-                        .toList();
+                CompletableFuture<List<Patient>> search = service.getAllPatientsAsync()
+                        .thenApply(all -> all.stream()
+                                .filter(p -> p.getIssue() != null && p.getIssue().toLowerCase().contains(lowerKeyword))
+                                .toList());
 
-                if (filtered.isEmpty()) {
-                    JOptionPane.showMessageDialog(frame, "No patients found for keyword: " + keyword);
-                } else {
-                    refreshPatientTable(model, filtered); // Filter and refresh table
-                }
+                tableLoads.submit(search, filtered -> {
+                    if (filtered.isEmpty()) {
+                        JOptionPane.showMessageDialog(frame, "No patients found for keyword: " + keyword);
+                    } else {
+                        refreshPatientTable(model, filtered); // Filter and refresh table
+                    }
+                });
             }
         });
 
-        viewAllBtn.addActionListener(e -> refreshPatientTable(model, service.getAllPatients())); // View all patients
+        viewAllBtn.addActionListener(e -> loadPatientTable(model, service.getAllPatientsAsync())); // View all patients
 
         backBtn.addActionListener(e -> {
             frame.dispose();
@@ -162,26 +185,31 @@ public class PatientMenu {
         return panel;
     }
 
+    /**
+     * Refreshes the patient table once a background load completes, unless a newer load has started meanwhile.
+     *
+     * @param model The table model that holds patient data.
+     * @param load The background load of the patients to display.
+     */
+    private static void loadPatientTable(LazyTableModel<Patient> model, CompletableFuture<List<Patient>> load) {
+        tableLoads.submit(load, list -> refreshPatientTable(model, list));
+    }
+
     /**
      * Refreshes the patient table with updated data.
      *
      * @param model The table model that holds patient data.
      * @param list The list of patients to display in the table.
      */
-    private static void refreshPatientTable(DefaultTableModel model, List<Patient> list) {
-        model.setRowCount(0); // Clear existing rows
-        for (Patient p : list) {
-            model.addRow(new Object[]{
-                    p.getId(), p.getName(), p.getAge(), p.getContact(), p.getGender(), p.getIssue()
-            });
-        }
+    private static void refreshPatientTable(LazyTableModel<Patient> model, List<Patient> list) {
+        model.showAll(list); // Cells are read from the list itself, with one change event
     }
 
     /**
      * Displays the form for adding a new patient.
      * Validates input and adds the patient to the system.
      */
-    private static void showAddPatientForm(DefaultTableModel model) {
+    private static void showAddPatientForm(LazyTableModel<Patient> model) {
         JTextField idField = new JTextField();
         JTextField nameField = new JTextField();
         JTextField ageField = new JTextField();
@@ -229,18 +257,21 @@ public class PatientMenu {
                 JOptionPane.showMessageDialog(null, "Please enter a valid age between 1 and 120.", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            if (service.getPatient(id) != null) {
-                JOptionPane.showMessageDialog(null, "Patient ID already exists. Please use a different ID.", "Duplicate ID", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-
             Patient newPatient = new Patient(id, name, age, contact, gender, issue);
-            if (service.addPatient(newPatient)) {
-                JOptionPane.showMessageDialog(null, "Patient added.");
-                refreshPatientTable(model, service.getAllPatients()); // Refresh the table
-            } else {
-                JOptionPane.showMessageDialog(null, "Could not add patient. Please check the details or try again.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.whenDone(service.getPatientAsync(id), existing -> {
+                if (existing != null) {
+                    JOptionPane.showMessageDialog(null, "Patient ID already exists. Please use a different ID.", "Duplicate ID", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                UiTasks.whenDone(service.addPatientAsync(newPatient), added -> {
+                    if (added) {
+                        JOptionPane.showMessageDialog(null, "Patient added.");
+                        loadPatientTable(model, service.getAllPatientsAsync()); // Refresh the table
+                    } else {
+                        JOptionPane.showMessageDialog(null, "Could not add patient. Please check the details or try again.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            });
         }
     }
 
@@ -251,7 +282,7 @@ public class PatientMenu {
      * @param model The table model to refresh after updating.
      * @param existing The existing patient to update.
      */
-    private static void showUpdatePatientForm(DefaultTableModel model, Patient existing) {
+    private static void showUpdatePatientForm(LazyTableModel<Patient> model, Patient existing) {
         JTextField nameField = new JTextField(existing.getName());
         JTextField ageField = new JTextField(String.valueOf(existing.getAge()));
         JTextField contactField = new JTextField(existing.getContact());
@@ -305,12 +336,14 @@ public class PatientMenu {
             existing.setGender(gender);
             existing.setIssue(issue);
 
-            if (service.updatePatient(existing)) {
-                JOptionPane.showMessageDialog(null, "Patient updated.");
-                refreshPatientTable(model, service.getAllPatients()); // Refresh the table
-            } else {
-                JOptionPane.showMessageDialog(null, "Update failed. Please check the inputs and try again.", "Update Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.whenDone(service.updatePatientAsync(existing), updated -> {
+                if (updated) {
+                    JOptionPane.showMessageDialog(null, "Patient updated.");
+                    loadPatientTable(model, service.getAllPatientsAsync()); // Refresh the table
+                } else {
+                    JOptionPane.showMessageDialog(null, "Update failed. Please check the inputs and try again.", "Update Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 }
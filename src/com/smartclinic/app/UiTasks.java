@@ -0,0 +1,79 @@
+package com.smartclinic.app;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Helpers for consuming asynchronous service calls from Swing.
+ * Results are always handed back on the Event Dispatch Thread (EDT), so callbacks may update components directly.
+ */
+final class UiTasks {
+
+    // Runs callbacks on the Swing Event Dispatch Thread
+    static final Executor EDT = SwingUtilities::invokeLater;
+
+    private UiTasks() {}
+
+    /**
+     * Runs a callback on the EDT once a background call succeeds.
+     * Failures are logged; cancelled calls are ignored.
+     * @param future The background call.
+     * @param onSuccess Receives the result on the EDT.
+     * @param <T> The result type.
+     */
+    static <T> void whenDone(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        future.whenCompleteAsync((value, error) -> {
+            if (error == null) {
+                onSuccess.accept(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof CancellationException)) {
+                System.out.println("[✗] Background task failed: " + cause.getMessage());
+            }
+        }, EDT);
+    }
+
+    /**
+     * Tracks the latest background call of one kind, such as loads into one table.
+     * Starting a new call cancels the previous one, so a slow, superseded search never overwrites newer results.
+     * Only used from the EDT.
+     *
+     * @param <T> The result type.
+     */
+    static final class Latest<T> {
+        private CompletableFuture<T> current;
+
+        /**
+         * Makes a background call the current one and runs a callback on the EDT if it is still current when it succeeds.
+         * @param future The new background call.
+         * @param onSuccess Receives the result on the EDT.
+         */
+        void submit(CompletableFuture<T> future, Consumer<T> onSuccess) {
+            if (current != null) {
+                current.cancel(false);
+            }
+            current = future;
+            whenDone(future, value -> {
+                if (current == future) {
+                    current = null;
+                    onSuccess.accept(value);
+                }
+            });
+        }
+
+        /**
+         * Cancels the current background call, if any, so its result is never applied.
+         */
+        void cancel() {
+            if (current != null) {
+                current.cancel(false);
+                current = null;
+            }
+        }
+    }
+}
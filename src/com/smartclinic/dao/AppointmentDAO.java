@@ -1,236 +1,718 @@
 package com.smartclinic.dao;
 
 import com.smartclinic.model.Appointment;
+import com.smartclinic.model.AppointmentFilter;
+import com.smartclinic.model.AppointmentList;
+import com.smartclinic.model.AvailableSlot;
+import com.smartclinic.model.Doctor;
+import com.smartclinic.model.WeeklySchedule;
+import com.smartclinic.util.Metrics;
 import com.smartclinic.util.SpecializationMapper;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object (DAO) for managing appointments.
  * Provides methods to book, cancel, update, and fetch appointments from the database.
  */
 public class AppointmentDAO {
-    // Map to maintain waitlists for doctors by date and timeslot
-    private final Map<String, Queue<String>> waitlists = new HashMap<>();
+    // Name of the unique key on (doctor_id, date, time_slot) in sql/schema.sql
+    private static final String SLOT_UNIQUE_KEY = "uq_appointments_doctor_slot";
+
+    // Appointment columns joined with the patient's name
+    private static final String SELECT_WITH_PATIENT = "SELECT a.*, p.name AS patient_name FROM appointments a " +
+            "JOIN patients p ON a.patient_id = p.id";
+
+    // Call latencies and rows read by the list queries, reported by Metrics
+    private static final Metrics.Timer BOOK_APPOINTMENT = Metrics.timer("AppointmentDAO.bookAppointment");
+    private static final Metrics.Timer IS_SLOT_AVAILABLE = Metrics.timer("AppointmentDAO.isSlotAvailable");
+    private static final Metrics.Timer FIND_EARLIEST_FREE_SLOTS = Metrics.timer("AppointmentDAO.findEarliestFreeSlots");
+    private static final Metrics.Timer CANCEL_APPOINTMENT = Metrics.timer("AppointmentDAO.cancelAppointment");
+    private static final Metrics.Timer IMPORT_APPOINTMENTS = Metrics.timer("AppointmentDAO.importAppointments");
+    private static final Metrics.Timer GET_ALL_APPOINTMENTS = Metrics.timer("AppointmentDAO.getAllAppointments");
+    private static final Metrics.Timer GET_APPOINTMENTS_PAGE = Metrics.timer("AppointmentDAO.getAppointmentsPage");
+    private static final Metrics.Timer STREAM_APPOINTMENTS = Metrics.timer("AppointmentDAO.streamAppointments");
+    private static final Metrics.Timer SEARCH_APPOINTMENTS = Metrics.timer("AppointmentDAO.searchAppointments");
+    private static final Metrics.Timer GET_APPOINTMENT_BY_ID = Metrics.timer("AppointmentDAO.getAppointmentById");
+    private static final Metrics.Timer GET_APPOINTMENT_BY_PATIENT_NAME = Metrics.timer("AppointmentDAO.getAppointmentByPatientName");
+    private static final Metrics.Timer UPDATE_APPOINTMENT = Metrics.timer("AppointmentDAO.updateAppointment");
+    private static final Metrics.Counter ROWS_FETCHED = Metrics.counter("AppointmentDAO.rowsFetched");
+
+    // Waitlists for doctors by date and timeslot, shared by all DAO instances and persisted across restarts
+    private final Waitlist waitlist = Waitlist.getInstance();
 
     /**
      * Books an appointment by checking if the selected time slot for the doctor is available.
+     * If the appointment has no doctor, the least-loaded doctor of the issue's specialization who has the slot
+     * free that day is assigned, using the in-memory occupancy index rather than extra queries.
      * If the slot is unavailable, the patient is added to the waitlist.
+     * The check and the insert run under the doctor/date lock stripe, and the insert fails rather than
+     * double-booking if another application instance took the slot first.
+     * Inside a {@link UnitOfWork} the booking and any waitlist entry are published to the shared slot index
+     * and waitlist only after the commit, so a rolled-back booking never blocks the slot or waitlists anyone.
      * @param issue The patient's medical issue.
-     * @param appt The appointment details.
+     * @param appt The appointment details; its doctor ID is set to the assigned doctor, and a null ID to a newly allocated one.
      * @return boolean Returns true if the appointment was successfully booked, false otherwise.
      */
     public boolean bookAppointment(String issue, Appointment appt) {
-        // Get the specialization for the issue
-        String specialization = SpecializationMapper.getSpecialization(issue);
-        // Fetch doctor ID based on specialization
-        String doctorId = getDoctorIdBySpecialization(specialization);
-
-        // If no doctor is found for the specialization, return false
-        if (doctorId == null) {
-            System.out.println("[✗] No doctor found for specialization: " + specialization);
+        long start = BOOK_APPOINTMENT.start();
+        try {
+            String chosen = appt.getDoctorId();
+            if (chosen != null && !chosen.isBlank()) {
+                return Boolean.TRUE.equals(bookWithDoctor(appt, chosen.trim(), true));
+            }
+
+            // Get the specialization for the issue and its doctors from the in-memory directory
+            String specialization = SpecializationMapper.getSpecialization(issue);
+            List<Doctor> candidates = DoctorDirectory.getInstance().getBySpecialization(specialization);
+
+            // If no doctor is found for the specialization, return false
+            if (candidates.isEmpty()) {
+                System.out.println("[✗] No doctor found for specialization: " + specialization);
+                return false;
+            }
+
+            SlotOccupancyIndex index = SlotOccupancyIndex.getInstance();
+            for (int attempt = 1; ; attempt++) {
+                String doctorId = index.leastLoaded(candidates, appt.getDate(), appt.getTimeSlot());
+                if (doctorId == null) {
+                    System.out.println("[✗] No " + specialization + " offers the slot " + appt.getTimeSlot() + " on " + appt.getDate() + ".");
+                    return false;
+                }
+                // If the slot was free when chosen but is taken by the time it is locked, try the next doctor;
+                // waitlist once every doctor's slot is taken
+                boolean waitlistIfTaken = attempt >= candidates.size()
+                        || !index.isFree(doctorId, appt.getDate(), appt.getTimeSlot());
+                Boolean booked = bookWithDoctor(appt, doctorId, waitlistIfTaken);
+                if (booked != null) return booked;
+            }
+        } catch (SQLException e) {
+            System.out.println("[✗] Error assigning doctor: " + e.getMessage());
             return false;
+        } finally {
+            BOOK_APPOINTMENT.stop(start);
         }
+    }
 
+    /**
+     * Books an appointment with one doctor, under the doctor/date lock stripe.
+     * Fails without waitlisting if the doctor does not offer the slot on that day.
+     * @param appt The appointment details; its doctor ID is set to doctorId.
+     * @param doctorId The doctor's ID.
+     * @param waitlistIfTaken Whether to waitlist the patient if the slot is taken.
+     * @return Boolean TRUE if booked, FALSE if it failed or the patient was waitlisted,
+     *         null if the slot is taken and the patient was not waitlisted.
+     */
+    private Boolean bookWithDoctor(Appointment appt, String doctorId, boolean waitlistIfTaken) {
         // Set the doctor for the appointment
         appt.setDoctorId(doctorId);
 
-        // Check if the doctor has an available slot for the given time
-        if (isSlotAvailable(doctorId, appt.getDate(), appt.getTimeSlot())) {
-            // If available, save the appointment to the database
-            return saveAppointment(appt);
-        } else {
+        Doctor doctor = DoctorDAO.getDoctorById(doctorId);
+        if (doctor == null || !doctor.getSchedule().offers(appt.getDate(), appt.getTimeSlot())) {
+            System.out.println("[✗] Doctor " + doctorId + " does not offer the slot " + appt.getTimeSlot() + " on " + appt.getDate() + ".");
+            return false;
+        }
+
+        ReentrantLock lock = SlotLocks.lockFor(doctorId, appt.getDate());
+        lock.lock();
+        try {
+            // Check if the doctor has an available slot for the given time
+            if (isSlotAvailable(doctorId, appt.getDate(), appt.getTimeSlot())) {
+                // If available, save the appointment to the database
+                try {
+                    return insertAppointment(appt);
+                } catch (SQLException e) {
+                    if (!isSlotConflict(e)) {
+                        System.out.println("[✗] Error booking appointment: " + e.getMessage());
+                        return false;
+                    }
+                    // Another booking took the slot first; fall through to the waitlist
+                    LocalDate date = appt.getDate();
+                    LocalTime timeSlot = appt.getTimeSlot();
+                    UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markBooked(doctorId, date, timeSlot));
+                }
+            }
+            if (!waitlistIfTaken) return null;
+
             // If slot is full, add patient to the waitlist
             enqueueWaitlist(doctorId, appt.getDate(), appt.getTimeSlot(), appt.getPatientId());
             System.out.println("[!] Slot is full. Patient added to waitlist.");
             return false;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Saves an appointment to the database.
+     * Gives an appointment without an ID the next one from {@link IdAllocator}.
+     * Call it before opening a {@link UnitOfWork} or taking a slot lock: reserving a new block of IDs borrows
+     * a connection of its own, and waiting for one while holding another can exhaust the pool.
+     * @param appt The appointment; its ID is set if it is null or blank.
+     * @throws SQLException If a new block of IDs cannot be reserved.
+     */
+    public void assignId(Appointment appt) throws SQLException {
+        if (appt.getId() == null || appt.getId().isBlank()) {
+            appt.setId(IdAllocator.appointments().next());
+        }
+    }
+
+    /**
+     * Inserts an appointment row and records the slot as booked once the insert is committed.
+     * An appointment without an ID is given one here, as a fallback for callers that did not call {@link #assignId}.
      * @param appt The appointment to be saved.
-     * @return boolean Returns true if the appointment was saved successfully, false otherwise.
+     * @return boolean Returns true if a row was inserted.
+     * @throws SQLException If the insert fails, including when the slot is already taken.
      */
-    private boolean saveAppointment(Appointment appt) {
+    private boolean insertAppointment(Appointment appt) throws SQLException {
         String sql = "INSERT INTO appointments (id, patient_id, doctor_id, date, time_slot, issue, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        assignId(appt);
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, appt.getId());
             stmt.setString(2, appt.getPatientId());
             stmt.setString(3, appt.getDoctorId());
-            stmt.setString(4, appt.getDate());
-            stmt.setString(5, appt.getTimeSlot());
+            stmt.setObject(4, appt.getDate());
+            stmt.setObject(5, appt.getTimeSlot());
             stmt.setString(6, appt.getIssue());
             stmt.setString(7, appt.getStatus());
 
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.out.println("[✗] Error booking appointment: " + e.getMessage());
+            if (stmt.executeUpdate() > 0) {
+                String doctorId = appt.getDoctorId();
+                LocalDate date = appt.getDate();
+                LocalTime timeSlot = appt.getTimeSlot();
+                UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markBooked(doctorId, date, timeSlot));
+                return true;
+            }
             return false;
         }
     }
 
     /**
-     * Fetches the doctor ID based on specialization.
-     * @param specialization The specialization of the doctor.
-     * @return String The doctor ID if found, or null if no doctor is found.
+     * Checks whether an insert failed because the doctor's slot is already booked.
+     * @param e The exception thrown by the insert.
+     * @return boolean True if the unique key on (doctor_id, date, time_slot) was violated.
      */
-    private String getDoctorIdBySpecialization(String specialization) {
-        String sql = "SELECT id FROM doctors WHERE specialization = ? LIMIT 1";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, specialization);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("id");
-            }
-        } catch (SQLException e) {
-            System.out.println("[✗] Error finding doctor: " + e.getMessage());
-        }
-        return null;
+    private static boolean isSlotConflict(SQLException e) {
+        boolean duplicateKey = e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+        return duplicateKey && e.getMessage() != null
+                && e.getMessage().toLowerCase(Locale.ROOT).contains(SLOT_UNIQUE_KEY);
     }
 
     /**
-     * Checks whether a given slot for a doctor is available.
+     * Checks whether a given slot for a doctor is available: the doctor offers it that day and it is not booked.
+     * Answered from the shared slot occupancy index; the database is only read the first time a doctor's day is checked.
      * @param doctorId The doctor's ID.
      * @param date The date of the appointment.
      * @param timeSlot The time slot of the appointment.
      * @return boolean Returns true if the slot is available, false otherwise.
      */
-    public boolean isSlotAvailable(String doctorId, String date, String timeSlot) {
-        String sql = "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND date = ? AND time_slot = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, doctorId);
-            stmt.setString(2, date);
-            stmt.setString(3, timeSlot);
-            ResultSet rs = stmt.executeQuery();
+    public boolean isSlotAvailable(String doctorId, LocalDate date, LocalTime timeSlot) {
+        long start = IS_SLOT_AVAILABLE.start();
+        try {
+            try {
+                return SlotOccupancyIndex.getInstance().isFree(doctorId, date, timeSlot);
+            } catch (SQLException e) {
+                System.out.println("[✗] Error checking availability: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            IS_SLOT_AVAILABLE.stop(start);
+        }
+    }
 
-            return rs.next() && rs.getInt(1) < 1;
+    /**
+     * Finds the earliest free slots of a group of doctors, using the shared slot occupancy index.
+     * @param doctors The doctors to search, e.g. all doctors of a specialization.
+     * @param fromDate The first date to search.
+     * @param horizonDays The number of days to search.
+     * @param limit The maximum number of slots to return.
+     * @return List<AvailableSlot> Up to {@code limit} free slots, earliest first; empty if the search fails.
+     */
+    public List<AvailableSlot> findEarliestFreeSlots(List<Doctor> doctors, LocalDate fromDate, int horizonDays, int limit) {
+        long start = FIND_EARLIEST_FREE_SLOTS.start();
+        try {
+            return SlotOccupancyIndex.getInstance().findFree(doctors, fromDate, horizonDays, limit);
         } catch (SQLException e) {
-            System.out.println("[✗] Error checking availability: " + e.getMessage());
-            return false;
+            System.out.println("[✗] Error finding free slots: " + e.getMessage());
+            return List.of();
+        } finally {
+            FIND_EARLIEST_FREE_SLOTS.stop(start);
         }
     }
 
     /**
-     * Adds a patient to the waitlist if a doctor's time slot is fully booked.
+     * Adds a patient to the waitlist if a doctor's time slot is fully booked, once the booking's work has committed.
      * @param doctorId The doctor's ID.
      * @param date The date of the appointment.
      * @param timeSlot The time slot of the appointment.
      * @param patientId The patient's ID.
      */
-    private void enqueueWaitlist(String doctorId, String date, String timeSlot, String patientId) {
-        String key = doctorId + "_" + date + "_" + timeSlot;
-        waitlists.computeIfAbsent(key, k -> new LinkedList<>()).add(patientId);
+    private void enqueueWaitlist(String doctorId, LocalDate date, LocalTime timeSlot, String patientId) {
+        UnitOfWork.afterCommit(() -> waitlist.enqueue(doctorId, date, timeSlot, patientId));
     }
 
     /**
      * Cancels an appointment and reassigns a patient from the waitlist to the freed slot if available.
+     * The cancellation and the promotion are a single atomic statement on one connection: the row is handed to
+     * the waitlisted patient with an in-place UPDATE, or deleted if nobody is waiting. Each write re-checks the
+     * slot it read, so a concurrent change to the appointment makes it fail instead of freeing the wrong slot.
+     * Inside a {@link UnitOfWork} the waitlist promotion and the freed slot are published only after the commit,
+     * so a rolled-back cancellation leaves the waitlist and the slot index as they were.
      * @param appointmentId The ID of the appointment to be cancelled.
      * @return boolean Returns true if the appointment was cancelled successfully, false otherwise.
      */
     public boolean cancelAppointment(String appointmentId) {
-        String selectSql = "SELECT * FROM appointments WHERE id = ?";
-        String deleteSql = "DELETE FROM appointments WHERE id = ?";
+        long start = CANCEL_APPOINTMENT.start();
+        try {
+            String selectSql = "SELECT doctor_id, date, time_slot FROM appointments WHERE id = ?";
+
+            // The ID for a promoted patient is taken before a connection is held and the slot is locked, since
+            // reserving a new block of IDs borrows a connection of its own; it goes unused if nobody is waiting
+            String newApptId;
+            try {
+                newApptId = IdAllocator.appointments().next();
+            } catch (SQLException e) {
+                System.out.println("[✗] Error cancelling appointment: " + e.getMessage());
+                return false;
+            }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement selectStmt = conn.prepareStatement(selectSql);
-             PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+            try (Connection conn = DBConnection.getConnection()) {
+                String doctorId;
+                LocalDate date;
+                LocalTime timeSlot;
+                try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+                    selectStmt.setString(1, appointmentId);
+                    ResultSet rs = selectStmt.executeQuery();
+                    if (!rs.next()) {
+                        System.out.println("[!] Appointment not found.");
+                        return false;
+                    }
+                    doctorId = rs.getString("doctor_id");
+                    date = rs.getObject("date", LocalDate.class);
+                    timeSlot = rs.getObject("time_slot", LocalTime.class);
+                }
+
+                // Hold the slot's lock so no new booking slips in before the waitlisted patient is promoted
+                ReentrantLock lock = SlotLocks.lockFor(doctorId, date);
+                lock.lock();
+                try {
+                    String nextPatientId = waitlist.peek(doctorId, date, timeSlot);
+                    if (nextPatientId != null) {
+                        if (promoteInPlace(conn, appointmentId, doctorId, date, timeSlot, nextPatientId, newApptId)) {
+                            // Leave the waitlist only once the new booking is committed
+                            UnitOfWork.afterCommit(() -> waitlist.promote(doctorId, date, timeSlot));
+                            System.out.println("[✓] Appointment cancelled.");
+                            System.out.println("[✓] Reassigned slot to patient in waitlist: " + nextPatientId);
+                            return true;
+                        }
+                    }
+
+                    if (deleteIfUnchanged(conn, appointmentId, doctorId, date, timeSlot)) {
+                        UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markFree(doctorId, date, timeSlot));
+                        System.out.println("[✓] Appointment cancelled.");
+                        if (nextPatientId != null) {
+                            // The promotion matched no patient row, so the waitlisted patient was deleted
+                            UnitOfWork.afterCommit(() -> waitlist.promote(doctorId, date, timeSlot));
+                            System.out.println("[!] Waitlisted patient no longer exists: " + nextPatientId);
+                        } else {
+                            System.out.println("[ℹ] No waitlisted patients for this slot.");
+                        }
+                        return true;
+                    }
+                    System.out.println("[!] Appointment changed or was removed while cancelling.");
+                } finally {
+                    lock.unlock();
+                }
+
+            } catch (SQLException e) {
+                System.out.println("[✗] Error cancelling appointment: " + e.getMessage());
+            }
+            return false;
+        } finally {
+            CANCEL_APPOINTMENT.stop(start);
+        }
+    }
+
+    /**
+     * Turns a cancelled appointment into a booking for a waitlisted patient by rewriting the row in place.
+     * The doctor, date and time slot stay the same, so the slot is never free in between.
+     * @param conn The connection the cancellation runs on.
+     * @param appointmentId The ID of the cancelled appointment.
+     * @param doctorId The doctor's ID, as read before the write.
+     * @param date The date, as read before the write.
+     * @param timeSlot The time slot, as read before the write.
+     * @param patientId The waitlisted patient's ID.
+     * @param newApptId The ID of the new appointment.
+     * @return boolean True if the row was reassigned; false if it changed meanwhile or the patient does not exist.
+     * @throws SQLException If the update fails.
+     */
+    private boolean promoteInPlace(Connection conn, String appointmentId, String doctorId, LocalDate date, LocalTime timeSlot,
+                                   String patientId, String newApptId) throws SQLException {
+        // Plain subqueries rather than UPDATE ... JOIN, which the embedded database profile does not support
+        String sql = "UPDATE appointments " +
+                "SET id = ?, patient_id = ?, issue = (SELECT p.issue FROM patients p WHERE p.id = ?), status = 'Confirmed' " +
+                "WHERE id = ? AND doctor_id = ? AND date = ? AND time_slot = ? " +
+                "AND EXISTS (SELECT 1 FROM patients p WHERE p.id = ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, newApptId);
+            stmt.setString(2, patientId);
+            stmt.setString(3, patientId);
+            stmt.setString(4, appointmentId);
+            stmt.setString(5, doctorId);
+            stmt.setObject(6, date);
+            stmt.setObject(7, timeSlot);
+            stmt.setString(8, patientId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
 
-            selectStmt.setString(1, appointmentId);
-            ResultSet rs = selectStmt.executeQuery();
+    /**
+     * Deletes an appointment if it still occupies the slot it was read with.
+     * @param conn The connection the cancellation runs on.
+     * @param appointmentId The ID of the appointment.
+     * @param doctorId The doctor's ID, as read before the write.
+     * @param date The date, as read before the write.
+     * @param timeSlot The time slot, as read before the write.
+     * @return boolean True if the row was deleted.
+     * @throws SQLException If the delete fails.
+     */
+    private boolean deleteIfUnchanged(Connection conn, String appointmentId, String doctorId, LocalDate date, LocalTime timeSlot)
+            throws SQLException {
+        String sql = "DELETE FROM appointments WHERE id = ? AND doctor_id = ? AND date = ? AND time_slot = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, appointmentId);
+            stmt.setString(2, doctorId);
+            stmt.setObject(3, date);
+            stmt.setObject(4, timeSlot);
+            return stmt.executeUpdate() > 0;
+        }
+    }
 
-            if (!rs.next()) {
-                System.out.println("[!] Appointment not found.");
-                return false;
+    /**
+     * Bulk-imports appointments from CSV using JDBC batching.
+     * Expected columns: id, patient_id, doctor_id, date (yyyy-MM-dd), time_slot (HH:mm), issue, status.
+     * Rows that clash with an existing booking of the same doctor slot are reported as failures.
+     * @param csv The CSV input; not closed by this method.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return ImportResult The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importAppointments(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        long start = IMPORT_APPOINTMENTS.start();
+        try {
+            String sql = "INSERT INTO appointments (id, patient_id, doctor_id, date, time_slot, issue, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            CsvBatchImport<Appointment> importer = new CsvBatchImport<>(sql, 7,
+                    f -> new Appointment(f[0], f[1], "", f[2], f[5], parseDate(f[3]), WeeklySchedule.parseTime(f[4]), f[6]),
+                    (stmt, appt) -> {
+                        stmt.setString(1, appt.getId());
+                        stmt.setString(2, appt.getPatientId());
+                        stmt.setString(3, appt.getDoctorId());
+                        stmt.setObject(4, appt.getDate());
+                        stmt.setObject(5, appt.getTimeSlot());
+                        stmt.setString(6, appt.getIssue());
+                        stmt.setString(7, appt.getStatus());
+                    });
+            try {
+                return importer.run(csv, hasHeader, chunkSize);
+            } finally {
+                // Imported rows bypass the booking path, so cached occupancy is rebuilt on demand
+                SlotOccupancyIndex.getInstance().invalidateDoctor(null);
             }
+        } finally {
+            IMPORT_APPOINTMENTS.stop(start);
+        }
+    }
 
-            String doctorId = rs.getString("doctor_id");
-            String date = rs.getString("date");
-            String timeSlot = rs.getString("time_slot");
+    /**
+     * Retrieves all appointments from the database.
+     * Prefer {@link #getAppointmentsPage} or {@link #streamAppointments} for large tables.
+     * @return AppointmentList A column-oriented list of all appointments.
+     */
+    public AppointmentList getAllAppointments() {
+        long start = GET_ALL_APPOINTMENTS.start();
+        try {
+            AppointmentList list = new AppointmentList();
+            String sql = SELECT_WITH_PATIENT + " ORDER BY a.date, a.time_slot, a.id";
+
+            try (Connection conn = DBConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    list.add(mapAppointment(rs));
+                }
+            } catch (SQLException e) {
+                System.out.println("[✗] Error fetching appointments: " + e.getMessage());
+            }
 
-            // Delete the appointment
-            deleteStmt.setString(1, appointmentId);
-            int rowsDeleted = deleteStmt.executeUpdate();
+            ROWS_FETCHED.add(list.size());
+            return list;
+        } finally {
+            GET_ALL_APPOINTMENTS.stop(start);
+        }
+    }
 
-            if (rowsDeleted > 0) {
-                System.out.println("[✓] Appointment cancelled.");
-                // Reassign the freed slot to a waitlisted patient
-                reassignFromWaitlist(doctorId, date, timeSlot);
-                return true;
+    /**
+     * Retrieves one page of appointments ordered by (date, time_slot, id) using keyset pagination.
+     * Each page is an index range scan that starts right after the previous page's last row,
+     * so late pages cost the same as the first one.
+     * @param after The last appointment of the previous page, or null for the first page.
+     * @param pageSize The maximum number of appointments to return.
+     * @return AppointmentList The page; fewer than pageSize entries means it is the last page.
+     */
+    public AppointmentList getAppointmentsPage(Appointment after, int pageSize) {
+        long start = GET_APPOINTMENTS_PAGE.start();
+        try {
+            AppointmentList page = new AppointmentList(pageSize);
+            String sql = after == null
+                    ? SELECT_WITH_PATIENT + " ORDER BY a.date, a.time_slot, a.id LIMIT ?"
+                    : SELECT_WITH_PATIENT + " WHERE a.date > ? OR (a.date = ? AND (a.time_slot > ? OR (a.time_slot = ? AND a.id > ?)))" +
+                      " ORDER BY a.date, a.time_slot, a.id LIMIT ?";
+
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                int i = 1;
+                if (after != null) {
+                    stmt.setObject(i++, after.getDate());
+                    stmt.setObject(i++, after.getDate());
+                    stmt.setObject(i++, after.getTimeSlot());
+                    stmt.setObject(i++, after.getTimeSlot());
+                    stmt.setString(i++, after.getId());
+                }
+                stmt.setInt(i, pageSize);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    page.add(mapAppointment(rs));
+                }
+            } catch (SQLException e) {
+                System.out.println("[✗] Error fetching appointments page: " + e.getMessage());
             }
-
-        } catch (SQLException e) {
-            System.out.println("[✗] Error cancelling appointment: " + e.getMessage());
+            ROWS_FETCHED.add(page.size());
+            return page;
+        } finally {
+            GET_APPOINTMENTS_PAGE.stop(start);
         }
-        return false;
     }
 
     /**
-     * Reassigns a patient from the waitlist to an available slot if an appointment is cancelled.
-     * @param doctorId The doctor's ID.
-     * @param date The date of the cancelled appointment.
-     * @param timeSlot The time slot of the cancelled appointment.
+     * Streams all appointments ordered by (date, time_slot, id), fetching rows from the server in batches
+     * instead of materializing the whole table. The stream holds a pooled connection until it is closed,
+     * so use it in a try-with-resources block. Its latency metric covers the whole stream, from the query to the close.
+     * @param fetchSize Number of rows fetched from the server per round-trip.
+     * @return Stream<Appointment> A lazily populated stream of appointments.
      */
-    private void reassignFromWaitlist(String doctorId, String date, String timeSlot) {
-        String key = doctorId + "_" + date + "_" + timeSlot;
-        Queue<String> queue = waitlists.get(key);
+    public Stream<Appointment> streamAppointments(int fetchSize) {
+        // Timed until the stream is closed, so the time spent reading the rows is included
+        long start = STREAM_APPOINTMENTS.start();
+        String sql = SELECT_WITH_PATIENT + " ORDER BY a.date, a.time_slot, a.id";
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            ResultSet rs = stmt.executeQuery();
 
-        if (queue != null && !queue.isEmpty()) {
-            String nextPatientId = queue.poll();
-            String newApptId = "A" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+            Connection owned = conn;
+            Spliterator<Appointment> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Appointment> action) {
+                    try {
+                        if (!rs.next()) return false;
+                        action.accept(mapAppointment(rs));
+                        ROWS_FETCHED.increment();
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error streaming appointments: " + e.getMessage(), e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                // Each close runs even if an earlier one fails, so the connection always goes back to the pool
+                try {
+                    try {
+                        rs.close();
+                    } finally {
+                        try {
+                            stmt.close();
+                        } finally {
+                            owned.close();
+                        }
+                    }
+                } catch (SQLException e) {
+                    System.out.println("[✗] Error closing appointment stream: " + e.getMessage());
+                } finally {
+                    STREAM_APPOINTMENTS.stop(start);
+                }
+            });
+        } catch (SQLException e) {
+            System.out.println("[✗] Error streaming appointments: " + e.getMessage());
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                    // Already reporting the original failure
+                }
+            }
+            STREAM_APPOINTMENTS.stop(start);
+            return Stream.empty();
+        }
+    }
 
-            Appointment reassigned = new Appointment(
-                    newApptId, nextPatientId, "", doctorId, "", date, timeSlot, "Confirmed"
-            );
+    /**
+     * Searches appointments with all predicates evaluated by the database.
+     * Structured criteria become AND-ed conditions. The free text becomes one UNION branch per
+     * interpretation (patient name prefix via idx_patients_name, exact doctor ID via the doctor/slot key,
+     * and a date, month or year range via the date index), so each branch is an index lookup.
+     * @param filter The search criteria.
+     * @return AppointmentList Matching appointments ordered by date, time slot and ID.
+     */
+    public AppointmentList searchAppointments(AppointmentFilter filter) {
+        long start = SEARCH_APPOINTMENTS.start();
+        try {
+            List<String> conditions = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+            addCondition(conditions, params, "a.doctor_id = ?", filter.getDoctorId());
+            addCondition(conditions, params, "a.patient_id = ?", filter.getPatientId());
+            addCondition(conditions, params, "a.status = ?", filter.getStatus());
+            addDateCondition(conditions, params, "a.date >= ?", filter.getDateFrom());
+            addDateCondition(conditions, params, "a.date <= ?", filter.getDateTo());
+
+            // Each free-text interpretation: a condition and its parameters
+            List<String> textConditions = new ArrayList<>();
+            List<List<Object>> textParams = new ArrayList<>();
+            String text = filter.getText() == null ? "" : filter.getText().trim();
+            if (!text.isEmpty()) {
+                textConditions.add("p.name LIKE ? ESCAPE '!'");
+                textParams.add(List.of(escapeLike(text) + "%"));
+                textConditions.add("a.doctor_id = ?");
+                textParams.add(List.of(text));
+                LocalDate[] range = parseDateRange(text);
+                if (range != null) {
+                    textConditions.add("a.date BETWEEN ? AND ?");
+                    textParams.add(List.of(range[0], range[1]));
+                }
+            }
 
-            if (saveAppointment(reassigned)) {
-                System.out.println("[✓] Reassigned slot to patient in waitlist: " + nextPatientId);
+            StringBuilder sql = new StringBuilder();
+            List<Object> allParams = new ArrayList<>();
+            if (textConditions.isEmpty()) {
+                appendSelect(sql, conditions, null);
+                allParams.addAll(params);
             } else {
-                System.out.println("[✗] Failed to reassign slot.");
+                for (int i = 0; i < textConditions.size(); i++) {
+                    if (i > 0) sql.append(" UNION ");
+                    appendSelect(sql, conditions, textConditions.get(i));
+                    allParams.addAll(params);
+                    allParams.addAll(textParams.get(i));
+                }
             }
-        } else {
-            System.out.println("[ℹ] No waitlisted patients for this slot.");
+            // A UNION is ordered by its output column names, a single SELECT by the table's columns
+            sql.append(textConditions.isEmpty() ? " ORDER BY a.date, a.time_slot, a.id" : " ORDER BY date, time_slot, id");
+            if (filter.getLimit() > 0) sql.append(" LIMIT ").append(filter.getLimit());
+
+            AppointmentList list = new AppointmentList();
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+                for (int i = 0; i < allParams.size(); i++) {
+                    stmt.setObject(i + 1, allParams.get(i));
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    list.add(mapAppointment(rs));
+                }
+            } catch (SQLException e) {
+                System.out.println("[✗] Error searching appointments: " + e.getMessage());
+            }
+            ROWS_FETCHED.add(list.size());
+            return list;
+        } finally {
+            SEARCH_APPOINTMENTS.stop(start);
         }
     }
 
+    private static void addCondition(List<String> conditions, List<Object> params, String condition, String value) {
+        if (value == null || value.trim().isEmpty()) return;
+        conditions.add(condition);
+        params.add(value.trim());
+    }
+
+    private static void addDateCondition(List<String> conditions, List<Object> params, String condition, LocalDate value) {
+        if (value == null) return;
+        conditions.add(condition);
+        params.add(value);
+    }
+
     /**
-     * Retrieves all appointments from the database.
-     * @return List<Appointment> A list of all appointments.
+     * Parses a date such as 2025-03-14.
+     * @param text The date, yyyy-MM-dd.
+     * @return LocalDate The date.
+     * @throws IllegalArgumentException If the text is not a valid date.
      */
-    public List<Appointment> getAllAppointments() {
-        List<Appointment> list = new ArrayList<>();
-        String sql = "SELECT a.*, p.name AS patient_name FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.id ORDER BY a.date, a.time_slot";
+    private static LocalDate parseDate(String text) {
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format. Use yyyy-MM-dd.");
+        }
+    }
 
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Appointment appt = new Appointment(
-                        rs.getString("id"),
-                        rs.getString("patient_id"),
-                        rs.getString("patient_name"),
-                        rs.getString("doctor_id"),
-                        rs.getString("issue"),
-                        rs.getString("date"),
-                        rs.getString("time_slot"),
-                        rs.getString("status")
-                );
-                list.add(appt);
+    private static void appendSelect(StringBuilder sql, List<String> conditions, String extraCondition) {
+        sql.append(SELECT_WITH_PATIENT);
+        List<String> all = new ArrayList<>(conditions);
+        if (extraCondition != null) all.add(extraCondition);
+        if (!all.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", all));
+    }
+
+    /**
+     * Escapes LIKE wildcards in user input, using '!' as the escape character.
+     * @param text The raw text.
+     * @return String The text with %, _ and ! escaped.
+     */
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Interprets free text as a date, month or year.
+     * @param text The text, e.g. 2025-03-14, 2025-03 or 2025.
+     * @return LocalDate[] The first and last date of the range, or null if the text is not a date.
+     */
+    private static LocalDate[] parseDateRange(String text) {
+        try {
+            if (text.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                LocalDate day = LocalDate.parse(text);
+                return new LocalDate[]{day, day};
             }
-        } catch (SQLException e) {
-            System.out.println("[✗] Error fetching appointments: " + e.getMessage());
+            if (text.matches("\\d{4}-\\d{2}")) {
+                YearMonth month = YearMonth.parse(text);
+                return new LocalDate[]{month.atDay(1), month.atEndOfMonth()};
+            }
+            if (text.matches("\\d{4}")) {
+                Year year = Year.parse(text);
+                return new LocalDate[]{year.atDay(1), year.atMonth(12).atEndOfMonth()};
+            }
+        } catch (DateTimeParseException e) {
+            return null;
         }
-
-        return list;
+        return null;
     }
 
     /**
@@ -239,59 +721,233 @@ public class AppointmentDAO {
      * @return Appointment The appointment if found, null otherwise.
      */
     public Appointment getAppointmentById(String id) {
-        String sql = "SELECT a.*, p.name AS patient_name FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.id WHERE a.id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = GET_APPOINTMENT_BY_ID.start();
+        try {
+            String sql = SELECT_WITH_PATIENT + " WHERE a.id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
+                stmt.setString(1, id);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return new Appointment(
-                        rs.getString("id"),
-                        rs.getString("patient_id"),
-                        rs.getString("patient_name"),
-                        rs.getString("doctor_id"),
-                        rs.getString("issue"),
-                        rs.getString("date"),
-                        rs.getString("time_slot"),
-                        rs.getString("status")
-                );
+                if (rs.next()) {
+                    return mapAppointment(rs);
+                }
+
+            } catch (SQLException e) {
+                System.out.println("[✗] Error fetching appointment: " + e.getMessage());
             }
+            return null;
+        } finally {
+            GET_APPOINTMENT_BY_ID.stop(start);
+        }
+    }
 
-        } catch (SQLException e) {
-            System.out.println("[✗] Error fetching appointment: " + e.getMessage());
+    /**
+     * Retrieves the earliest appointment of a patient with a given name.
+     * The name is looked up with idx_patients_name, so only that patient's appointments are read;
+     * it is compared case-insensitively under the schema's default collation.
+     * @param name The patient's full name.
+     * @return Appointment The patient's earliest appointment by date and time slot, or null if none.
+     */
+    public Appointment getAppointmentByPatientName(String name) {
+        long start = GET_APPOINTMENT_BY_PATIENT_NAME.start();
+        try {
+            String sql = SELECT_WITH_PATIENT + " WHERE p.name = ? ORDER BY a.date, a.time_slot, a.id LIMIT 1";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setString(1, name);
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    return mapAppointment(rs);
+                }
+
+            } catch (SQLException e) {
+                System.out.println("[✗] Error fetching appointment: " + e.getMessage());
+            }
+            return null;
+        } finally {
+            GET_APPOINTMENT_BY_PATIENT_NAME.stop(start);
         }
-        return null;
     }
 
     /**
-     * Updates an existing appointment.
+     * Builds an appointment from the current row of a query based on {@link #SELECT_WITH_PATIENT}.
+     * @param rs The result set positioned on a row.
+     * @return Appointment The appointment in that row.
+     * @throws SQLException If a column cannot be read.
+     */
+    private static Appointment mapAppointment(ResultSet rs) throws SQLException {
+        return new Appointment(
+                rs.getString("id"),
+                rs.getString("patient_id"),
+                rs.getString("patient_name"),
+                rs.getString("doctor_id"),
+                rs.getString("issue"),
+                rs.getObject("date", LocalDate.class),
+                rs.getObject("time_slot", LocalTime.class),
+                rs.getString("status")
+        );
+    }
+
+    /**
+     * Updates an existing appointment's date, time slot, issue and status; the doctor stays the same.
+     * A move to another slot is checked against the doctor's schedule and made under the lock stripes of both
+     * dates, like a booking and a cancellation, and fails rather than double-booking if the new slot is taken.
+     * The first patient waiting for the old slot is booked into it. Inside a {@link UnitOfWork} the moved booking,
+     * the freed slot and the promotion are published to the slot index and waitlist only after the commit.
      * @param appt The updated appointment details.
      * @return boolean Returns true if the appointment was updated successfully, false otherwise.
      */
     public boolean updateAppointment(Appointment appt) {
-        String sql = "UPDATE appointments SET date = ?, time_slot = ?, issue = ?, status = ? WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = UPDATE_APPOINTMENT.start();
+        try {
+            String selectSql = "SELECT doctor_id, date, time_slot FROM appointments WHERE id = ?";
+
+            // As when cancelling, the ID for a promoted patient is taken before a connection is held
+            String newApptId;
+            try {
+                newApptId = IdAllocator.appointments().next();
+            } catch (SQLException e) {
+                System.out.println("[✗] Error updating appointment: " + e.getMessage());
+                return false;
+            }
 
-            stmt.setString(1, appt.getDate());
-            stmt.setString(2, appt.getTimeSlot());
+            try (Connection conn = DBConnection.getConnection()) {
+                String doctorId;
+                LocalDate oldDate;
+                LocalTime oldSlot;
+                try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+                    selectStmt.setString(1, appt.getId());
+                    ResultSet rs = selectStmt.executeQuery();
+                    if (!rs.next()) {
+                        System.out.println("[!] No appointment found with the given ID.");
+                        return false;
+                    }
+                    doctorId = rs.getString("doctor_id");
+                    oldDate = rs.getObject("date", LocalDate.class);
+                    oldSlot = rs.getObject("time_slot", LocalTime.class);
+                }
+
+                LocalDate date = appt.getDate();
+                LocalTime timeSlot = appt.getTimeSlot();
+                boolean moved = !date.equals(oldDate) || !timeSlot.equals(oldSlot);
+                if (moved) {
+                    Doctor doctor = DoctorDAO.getDoctorById(doctorId);
+                    if (doctor == null || !doctor.getSchedule().offers(date, timeSlot)) {
+                        System.out.println("[✗] Doctor " + doctorId + " does not offer the slot " + timeSlot + " on " + date + ".");
+                        return false;
+                    }
+                }
+
+                ReentrantLock[] locks = SlotLocks.lockBoth(doctorId, oldDate, date);
+                try {
+                    if (moved && !isSlotAvailable(doctorId, date, timeSlot)) {
+                        System.out.println("[!] The slot " + timeSlot + " on " + date + " is already booked.");
+                        return false;
+                    }
+
+                    boolean updated;
+                    try {
+                        updated = updateIfUnchanged(conn, appt, doctorId, oldDate, oldSlot);
+                    } catch (SQLException e) {
+                        if (!isSlotConflict(e)) throw e;
+                        // Another application instance booked the new slot first
+                        UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markBooked(doctorId, date, timeSlot));
+                        System.out.println("[!] The slot " + timeSlot + " on " + date + " is already booked.");
+                        return false;
+                    }
+                    if (!updated) {
+                        System.out.println("[!] Appointment changed or was removed while updating.");
+                        return false;
+                    }
+
+                    System.out.println("[✓] Appointment updated successfully.");
+                    if (moved) {
+                        UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markBooked(doctorId, date, timeSlot));
+                        fillFromWaitlist(conn, doctorId, oldDate, oldSlot, newApptId);
+                    }
+                    return true;
+                } finally {
+                    SlotLocks.unlock(locks);
+                }
+
+            } catch (SQLException e) {
+                System.out.println("[✗] Error updating appointment: " + e.getMessage());
+            }
+            return false;
+        } finally {
+            UPDATE_APPOINTMENT.stop(start);
+        }
+    }
+
+    /**
+     * Writes an appointment's new details if it still occupies the slot it was read with.
+     * @param conn The connection the update runs on.
+     * @param appt The updated appointment details.
+     * @param doctorId The doctor's ID, as read before the write.
+     * @param date The date, as read before the write.
+     * @param timeSlot The time slot, as read before the write.
+     * @return boolean True if the row was updated.
+     * @throws SQLException If the update fails, including when the new slot is already taken.
+     */
+    private boolean updateIfUnchanged(Connection conn, Appointment appt, String doctorId, LocalDate date, LocalTime timeSlot)
+            throws SQLException {
+        String sql = "UPDATE appointments SET date = ?, time_slot = ?, issue = ?, status = ? " +
+                "WHERE id = ? AND doctor_id = ? AND date = ? AND time_slot = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, appt.getDate());
+            stmt.setObject(2, appt.getTimeSlot());
             stmt.setString(3, appt.getIssue());
             stmt.setString(4, appt.getStatus());
             stmt.setString(5, appt.getId());
+            stmt.setString(6, doctorId);
+            stmt.setObject(7, date);
+            stmt.setObject(8, timeSlot);
+            return stmt.executeUpdate() > 0;
+        }
+    }
 
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("[✓] Appointment updated successfully.");
-                return true;
-            } else {
-                System.out.println("[!] No appointment found with the given ID.");
+    /**
+     * Books the first patient waiting for a slot that an update has just freed, or records the slot as free
+     * if nobody is waiting. Callers hold the slot's lock stripe. A failed promotion leaves the update in place.
+     * @param conn The connection the update runs on.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the freed slot.
+     * @param timeSlot The freed time slot.
+     * @param newApptId The ID of the new appointment.
+     */
+    private void fillFromWaitlist(Connection conn, String doctorId, LocalDate date, LocalTime timeSlot, String newApptId) {
+        String nextPatientId = waitlist.peek(doctorId, date, timeSlot);
+        if (nextPatientId != null) {
+            // Plain subqueries rather than INSERT ... JOIN, as in promoteInPlace
+            String sql = "INSERT INTO appointments (id, patient_id, doctor_id, date, time_slot, issue, status) " +
+                    "SELECT ?, p.id, ?, ?, ?, p.issue, 'Confirmed' FROM patients p WHERE p.id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, newApptId);
+                stmt.setString(2, doctorId);
+                stmt.setObject(3, date);
+                stmt.setObject(4, timeSlot);
+                stmt.setString(5, nextPatientId);
+                boolean booked = stmt.executeUpdate() > 0;
+
+                // Leave the waitlist once the new booking is committed, or drop a patient who no longer exists
+                UnitOfWork.afterCommit(() -> waitlist.promote(doctorId, date, timeSlot));
+                if (booked) {
+                    System.out.println("[✓] Reassigned freed slot to patient in waitlist: " + nextPatientId);
+                    return;
+                }
+                System.out.println("[!] Waitlisted patient no longer exists: " + nextPatientId);
+            } catch (SQLException e) {
+                if (isSlotConflict(e)) {
+                    // Another application instance booked the freed slot first; the patient keeps waiting
+                    return;
+                }
+                System.out.println("[✗] Error reassigning freed slot: " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.out.println("[✗] Error updating appointment: " + e.getMessage());
         }
-        return false;
+        UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().markFree(doctorId, date, timeSlot));
     }
 }
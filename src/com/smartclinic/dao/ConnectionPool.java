@@ -0,0 +1,426 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.util.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded JDBC connection pool.
+ * Keeps a set of warm physical connections, hands them out as logical connections whose
+ * close() returns them to the pool, validates idle connections on borrow and enforces a borrow timeout.
+ * Returned connections are rolled back and get back the session settings they were opened with, and
+ * broken connections are replaced in the background so at least {@code minSize} stay warm.
+ * Each physical connection keeps its own {@link StatementCache}, so statements prepared through
+ * a pooled connection survive across borrows.
+ */
+public class ConnectionPool {
+
+    // Connections idle for longer than this are validated with isValid() before being handed out
+    private static final long VALIDATION_IDLE_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Distribution of the time callers wait for a free connection
+    private static final Metrics.Timer BORROW_WAIT = Metrics.timer("ConnectionPool.borrowWait");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    // Idle physical connections, most recently returned first so the warmest one is reused
+    private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be checked out at the same time
+    private final Semaphore permits;
+    private volatile boolean closed;
+    // Set while a background refill runs, so destroying several connections starts only one
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    // Statistics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a pool and opens {@code minSize} warm connections.
+     * Failure to open the warm connections is logged but not fatal; they are opened on demand later.
+     * @param url The JDBC URL.
+     * @param user The database user.
+     * @param password The database password.
+     * @param minSize Number of connections kept open even when idle.
+     * @param maxSize Maximum number of connections open at the same time.
+     * @param borrowTimeoutMillis How long a caller waits for a free connection before failing.
+     * @param statementCacheSize Prepared statements cached per connection; 0 disables the cache.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.offerLast(openPhysical());
+            }
+        } catch (SQLException e) {
+            System.out.println("[!] Could not pre-open pooled connections: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the borrow timeout for one to become free.
+     * The returned connection must be closed by the caller, which returns it to the pool.
+     * @return Connection A logical connection backed by a pooled physical connection.
+     * @throws SQLException If the pool is closed, the timeout expires, or a new connection cannot be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed.");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        } finally {
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            BORROW_WAIT.record(waited);
+        }
+
+        try {
+            PhysicalConnection physical = takeValidIdle();
+            if (physical == null) {
+                physical = openPhysical();
+            }
+            borrowCount.incrementAndGet();
+            return physical.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes idle connections until a usable one is found, discarding broken ones.
+     * @return PhysicalConnection A validated idle connection, or null if none is idle.
+     */
+    private PhysicalConnection takeValidIdle() {
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            if (physical.isUsable()) {
+                return physical;
+            }
+            destroy(physical);
+        }
+        return null;
+    }
+
+    /**
+     * Opens a new physical connection to the database.
+     * @return PhysicalConnection The newly opened connection.
+     * @throws SQLException If the connection cannot be established.
+     */
+    private PhysicalConnection openPhysical() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PhysicalConnection(raw);
+    }
+
+    /**
+     * Returns a physical connection to the idle set, or closes it if it is broken or the pool is closed.
+     * @param physical The connection being returned.
+     */
+    private void release(PhysicalConnection physical) {
+        try {
+            if (closed || !physical.reset()) {
+                destroy(physical);
+            } else {
+                idle.offerFirst(physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes a physical connection and removes it from the pool's accounting.
+     * @param physical The connection to close.
+     */
+    private void destroy(PhysicalConnection physical) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            physical.raw.close();
+        } catch (SQLException e) {
+            System.out.println("[!] Error closing pooled connection: " + e.getMessage());
+        }
+        refillAsync();
+    }
+
+    /**
+     * Opens connections on a background thread until the pool holds {@code minSize} again, so borrowers
+     * after a broken connection was destroyed find a warm one instead of each paying for a connect.
+     */
+    private void refillAsync() {
+        if (closed || totalConnections.get() >= minSize || !refilling.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("smartclinic-pool-refill").start(() -> {
+            try {
+                while (!closed && totalConnections.get() < minSize) {
+                    PhysicalConnection physical = openPhysical();
+                    if (closed) {
+                        destroy(physical);
+                        return;
+                    }
+                    idle.offerLast(physical);
+                }
+            } catch (SQLException e) {
+                System.out.println("[!] Could not reopen pooled connections: " + e.getMessage());
+                return;
+            } finally {
+                refilling.set(false);
+            }
+            // A connection destroyed while this refill was finishing found the flag still set
+            refillAsync();
+        });
+    }
+
+    /**
+     * Closes all idle connections and rejects further borrows.
+     * Connections currently checked out are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            destroy(physical);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the pool's statistics.
+     * @return Stats The current pool statistics.
+     */
+    public Stats getStats() {
+        return new Stats(minSize, maxSize, totalConnections.get(), idle.size(),
+                maxSize - permits.availablePermits(), permits.getQueueLength(),
+                borrowCount.get(), createdCount.get(), destroyedCount.get(), timeoutCount.get(),
+                TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()),
+                StatementCache.getHits(), StatementCache.getMisses(), StatementCache.getEvictions());
+    }
+
+    /**
+     * A physical database connection owned by the pool.
+     */
+    private final class PhysicalConnection {
+        private final Connection raw;
+        private final StatementCache statements;
+        private long lastReturnedMillis = System.currentTimeMillis();
+        // Session settings the connection was opened with, restored on return if a borrower changed them
+        private final boolean defaultReadOnly;
+        private final int defaultIsolation;
+        private final String defaultCatalog;
+        private boolean settingsChanged;
+
+        PhysicalConnection(Connection raw) throws SQLException {
+            this.raw = raw;
+            this.statements = statementCacheSize > 0 ? new StatementCache(raw, statementCacheSize) : null;
+            this.defaultReadOnly = raw.isReadOnly();
+            this.defaultIsolation = raw.getTransactionIsolation();
+            this.defaultCatalog = raw.getCatalog();
+        }
+
+        /**
+         * Checks that the connection is still alive. Recently used connections are trusted without a round-trip.
+         * @return boolean True if the connection can be handed out.
+         */
+        boolean isUsable() {
+            try {
+                if (raw.isClosed()) return false;
+                if (System.currentTimeMillis() - lastReturnedMillis < VALIDATION_IDLE_MILLIS) return true;
+                return raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Restores the connection to its default state before it goes back to the idle set:
+         * rolls back an open transaction, turns auto-commit back on and restores the read-only flag,
+         * transaction isolation and catalog.
+         * @return boolean True if the connection is still usable.
+         */
+        boolean reset() {
+            try {
+                if (raw.isClosed()) return false;
+                if (!raw.getAutoCommit()) {
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+                if (settingsChanged) {
+                    if (raw.isReadOnly() != defaultReadOnly) raw.setReadOnly(defaultReadOnly);
+                    if (raw.getTransactionIsolation() != defaultIsolation) raw.setTransactionIsolation(defaultIsolation);
+                    if (!Objects.equals(raw.getCatalog(), defaultCatalog)) raw.setCatalog(defaultCatalog);
+                    settingsChanged = false;
+                }
+                lastReturnedMillis = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Creates a logical connection handle for one borrower.
+         * @return Connection A proxy whose close() returns this connection to the pool.
+         */
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Routes calls on a logical connection to its physical connection until the logical one is closed.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private PhysicalConnection physical;
+
+        LeaseHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (physical != null) {
+                        PhysicalConnection returning = physical;
+                        physical = null;
+                        release(returning);
+                    }
+                    return null;
+                case "isClosed":
+                    return physical == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (physical == null ? "closed" : physical.raw) + "]";
+                default:
+                    if (physical == null) throw new SQLException("Connection has been returned to the pool.");
+                    String name = method.getName();
+                    if ("setReadOnly".equals(name) || "setTransactionIsolation".equals(name) || "setCatalog".equals(name)) {
+                        physical.settingsChanged = true;  // reset() restores them on return
+                    }
+                    if (physical.statements != null && "prepareStatement".equals(name) && args.length == 1) {
+                        return physical.statements.prepare((String) args[0]);
+                    }
+                    try {
+                        return method.invoke(physical.raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of the pool's state and counters.
+     */
+    public static final class Stats {
+        private final int minSize;
+        private final int maxSize;
+        private final int totalConnections;
+        private final int idleConnections;
+        private final int activeConnections;
+        private final int waitingThreads;
+        private final long borrowCount;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long timeoutCount;
+        private final long totalWaitMicros;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        Stats(int minSize, int maxSize, int totalConnections, int idleConnections, int activeConnections,
+              int waitingThreads, long borrowCount, long createdCount, long destroyedCount,
+              long timeoutCount, long totalWaitMicros,
+              long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.totalConnections = totalConnections;
+            this.idleConnections = idleConnections;
+            this.activeConnections = activeConnections;
+            this.waitingThreads = waitingThreads;
+            this.borrowCount = borrowCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.timeoutCount = timeoutCount;
+            this.totalWaitMicros = totalWaitMicros;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public int getTotalConnections() { return totalConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getTotalWaitMicros() { return totalWaitMicros; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+        @Override
+        public String toString() {
+            return "Pool[min=" + minSize + ", max=" + maxSize +
+                    ", total=" + totalConnections + ", idle=" + idleConnections +
+                    ", active=" + activeConnections + ", waiting=" + waitingThreads +
+                    ", borrows=" + borrowCount + ", created=" + createdCount +
+                    ", destroyed=" + destroyedCount + ", timeouts=" + timeoutCount +
+                    ", waitMicros=" + totalWaitMicros +
+                    ", stmtCacheHits=" + statementCacheHits + ", stmtCacheMisses=" + statementCacheMisses +
+                    ", stmtCacheEvictions=" + statementCacheEvictions + "]";
+        }
+    }
+}
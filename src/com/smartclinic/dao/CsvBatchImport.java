@@ -0,0 +1,187 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.util.CsvParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams CSV rows into one INSERT statement using JDBC batching.
+ * Rows are parsed one line at a time, sent with addBatch/executeBatch and committed every {@code chunkSize} rows,
+ * so memory stays bounded by one chunk. If a chunk fails, it is rolled back and replayed row by row
+ * to pinpoint the failing rows, and the remaining rows of the chunk are still committed.
+ * An optional second statement inserts child rows of each entity, such as a doctor's slots, in the same chunk.
+ *
+ * @param <T> The entity type a CSV row is parsed into.
+ */
+final class CsvBatchImport<T> {
+
+    /**
+     * Converts the fields of one CSV row into an entity.
+     * @param <T> The entity type.
+     */
+    interface RowParser<T> {
+        T parse(String[] fields);
+    }
+
+    /**
+     * Binds an entity to the parameters of the INSERT statement.
+     * @param <T> The entity type.
+     */
+    interface RowBinder<T> {
+        void bind(PreparedStatement stmt, T row) throws SQLException;
+    }
+
+    /**
+     * Adds the child rows of an entity to the batch of the child INSERT statement, one addBatch per row.
+     * @param <T> The entity type.
+     */
+    interface ChildBinder<T> {
+        void addBatches(PreparedStatement stmt, T row) throws SQLException;
+    }
+
+    private final String sql;
+    private final int columns;
+    private final RowParser<T> parser;
+    private final RowBinder<T> binder;
+    private final String childSql;
+    private final ChildBinder<T> childBinder;
+
+    /**
+     * @param sql The INSERT statement.
+     * @param columns The number of fields each CSV row must have.
+     * @param parser Converts CSV fields to an entity; throws IllegalArgumentException for invalid rows.
+     * @param binder Binds an entity to the INSERT statement.
+     */
+    CsvBatchImport(String sql, int columns, RowParser<T> parser, RowBinder<T> binder) {
+        this(sql, columns, parser, binder, null, null);
+    }
+
+    /**
+     * @param sql The INSERT statement.
+     * @param columns The number of fields each CSV row must have.
+     * @param parser Converts CSV fields to an entity; throws IllegalArgumentException for invalid rows.
+     * @param binder Binds an entity to the INSERT statement.
+     * @param childSql The INSERT statement for the entity's child rows, run after the main statement of each chunk.
+     * @param childBinder Adds an entity's child rows to the child statement.
+     */
+    CsvBatchImport(String sql, int columns, RowParser<T> parser, RowBinder<T> binder,
+                   String childSql, ChildBinder<T> childBinder) {
+        this.sql = sql;
+        this.columns = columns;
+        this.parser = parser;
+        this.binder = binder;
+        this.childSql = childSql;
+        this.childBinder = childBinder;
+    }
+
+    /**
+     * Imports every row of the CSV input.
+     * @param csv The CSV input; not closed by this method.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return ImportResult The number of imported rows and the per-row failures.
+     * @throws SQLException If the connection fails outside of a single row's insert.
+     * @throws IOException If the input cannot be read.
+     */
+    ImportResult run(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive.");
+
+        ImportResult result = new ImportResult();
+        BufferedReader reader = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        try (Connection conn = DBConnection.borrow();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement childStmt = childSql == null ? null : conn.prepareStatement(childSql)) {
+
+            conn.setAutoCommit(false);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if ((hasHeader && lineNumber == 1) || line.isBlank()) continue;
+
+                T row;
+                try {
+                    String[] fields = CsvParser.parseLine(line);
+                    if (fields.length != columns) {
+                        throw new IllegalArgumentException("Expected " + columns + " fields but found " + fields.length + ".");
+                    }
+                    row = parser.parse(fields);
+                } catch (IllegalArgumentException e) {
+                    result.addError(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                binder.bind(stmt, row);
+                stmt.addBatch();
+                if (childStmt != null) childBinder.addBatches(childStmt, row);
+                chunk.add(row);
+                chunkLines.add(lineNumber);
+
+                if (chunk.size() == chunkSize) {
+                    flush(conn, stmt, childStmt, chunk, chunkLines, result);
+                }
+            }
+            flush(conn, stmt, childStmt, chunk, chunkLines, result);
+        }
+        return result;
+    }
+
+    /**
+     * Executes and commits the pending batch, falling back to row-by-row inserts if the batch fails.
+     */
+    private void flush(Connection conn, PreparedStatement stmt, PreparedStatement childStmt, List<T> chunk,
+                       List<Long> chunkLines, ImportResult result) throws SQLException {
+        if (chunk.isEmpty()) return;
+        try {
+            stmt.executeBatch();
+            if (childStmt != null) childStmt.executeBatch();
+            conn.commit();
+            result.addImported(chunk.size());
+        } catch (SQLException batchError) {
+            conn.rollback();
+            stmt.clearBatch();
+            if (childStmt != null) childStmt.clearBatch();
+            insertRowByRow(conn, stmt, childStmt, chunk, chunkLines, result);
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    /**
+     * Inserts a failed chunk one row at a time, recording each failing row and committing the rest.
+     */
+    private void insertRowByRow(Connection conn, PreparedStatement stmt, PreparedStatement childStmt, List<T> chunk,
+                                List<Long> chunkLines, ImportResult result) throws SQLException {
+        long imported = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(stmt, chunk.get(i));
+                stmt.executeUpdate();
+                if (childStmt != null) {
+                    childBinder.addBatches(childStmt, chunk.get(i));
+                    childStmt.executeBatch();
+                }
+                conn.releaseSavepoint(savepoint);
+                imported++;
+            } catch (SQLException rowError) {
+                conn.rollback(savepoint);
+                if (childStmt != null) childStmt.clearBatch();
+                result.addError(chunkLines.get(i), rowError.getMessage());
+            }
+        }
+        conn.commit();
+        result.addImported(imported);
+    }
+}
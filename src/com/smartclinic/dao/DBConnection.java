@@ -1,35 +1,115 @@
 package com.smartclinic.dao;
 
+import com.smartclinic.util.Metrics;
+
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Utility class for establishing a connection to the database.
- * Provides a method to get a connection to the MySQL database.
+ * Utility class for obtaining connections to the database.
+ * Connections are served from a bounded pool of warm connections, so closing a connection
+ * returns it to the pool instead of tearing down the TCP session.
+ * The URL, credentials and pool sizing come from {@link DatabaseConfig}.
  */
 public class DBConnection {
 
-    // Database connection URL
-    private static final String URL = "jdbc:mysql://localhost:3306/smart_clinic";
+    /**
+     * Lazily created pool, so the driver is only contacted when the first connection is requested.
+     */
+    private static final class PoolHolder {
+        static final DatabaseConfig CONFIG = DatabaseConfig.load();
+        static final ConnectionPool POOL = createPool();
+
+        private static ConnectionPool createPool() {
+            ConnectionPool pool = new ConnectionPool(CONFIG.getUrl(), CONFIG.getUser(), CONFIG.getPassword(),
+                    CONFIG.getPoolMinSize(), CONFIG.getPoolMaxSize(),
+                    CONFIG.getBorrowTimeoutMillis(), CONFIG.getStatementCacheSize());
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "smartclinic-pool-shutdown"));
+            registerGauges(pool);
+            if (CONFIG.isInitSchema()) {
+                initSchema(pool);
+            }
+            migrateDoctorSlots(pool);
+            return pool;
+        }
+
+        private static void registerGauges(ConnectionPool pool) {
+            Metrics.gauge("pool.activeConnections", () -> pool.getStats().getActiveConnections());
+            Metrics.gauge("pool.idleConnections", () -> pool.getStats().getIdleConnections());
+            Metrics.gauge("pool.waitingThreads", () -> pool.getStats().getWaitingThreads());
+            Metrics.gauge("pool.timeouts", () -> pool.getStats().getTimeoutCount());
+            Metrics.gauge("pool.statementCacheHits", StatementCache::getHits);
+            Metrics.gauge("pool.statementCacheMisses", StatementCache::getMisses);
+        }
+
+        private static void initSchema(ConnectionPool pool) {
+            try (Connection conn = pool.borrow()) {
+                int count = SchemaLoader.run(conn, CONFIG.getSchemaPath());
+                System.out.println("[ℹ] Loaded " + count + " schema statements from " + CONFIG.getSchemaPath());
+            } catch (SQLException | IOException e) {
+                System.out.println("[✗] Error loading schema " + CONFIG.getSchemaPath() + ": " + e.getMessage());
+            }
+        }
 
-    // Database user credentials (ensure these are kept secure and not hardcoded in production)
-    private static final String USER = "root";  // MySQL username
-    private static final String PASS = "tiger"; // MySQL password
+        private static void migrateDoctorSlots(ConnectionPool pool) {
+            try (Connection conn = pool.borrow()) {
+                int count = DoctorSlotMigration.run(conn);
+                if (count > 0) {
+                    System.out.println("[ℹ] Moved the time slots of " + count + " doctors into doctor_slots");
+                }
+            } catch (SQLException e) {
+                System.out.println("[✗] Error migrating doctor time slots: " + e.getMessage());
+            }
+        }
+    }
 
     /**
-     * Establishes a connection to the MySQL database.
-     * @return Connection The established database connection.
-     * @throws SQLException If a database access error occurs.
+     * Borrows a connection to the database from the pool, or returns the connection of the
+     * {@link UnitOfWork} open on the current thread.
+     * The caller must close the connection to return it to the pool.
+     * @return Connection The pooled database connection.
+     * @throws SQLException If a database access error occurs or no connection becomes free in time.
      */
     public static Connection getConnection() throws SQLException {
+        // Inside a unit of work every DAO call on the thread shares its connection and transaction
+        UnitOfWork uow = UnitOfWork.current();
+        if (uow != null) {
+            return uow.connection();
+        }
+        return borrow();
+    }
+
+    /**
+     * Borrows a connection of its own from the pool, even inside a unit of work.
+     * Used by code that manages its own transactions, such as bulk imports.
+     * @return Connection The pooled database connection.
+     * @throws SQLException If a database access error occurs or no connection becomes free in time.
+     */
+    static Connection borrow() throws SQLException {
         try {
-            // Attempt to establish a connection to the database
-            return DriverManager.getConnection(URL, USER, PASS);
+            // Attempt to borrow a connection from the pool
+            return PoolHolder.POOL.borrow();
         } catch (SQLException e) {
             // Throw an exception if the connection fails
             System.out.println("[✗] Error establishing database connection: " + e.getMessage());
             throw e; // Propagate the exception after logging the error
         }
     }
+
+    /**
+     * Returns a snapshot of the connection pool statistics, including prepared statement cache hits and misses.
+     * @return ConnectionPool.Stats The current pool statistics.
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return PoolHolder.POOL.getStats();
+    }
+
+    /**
+     * Returns the settings the pool was created with.
+     * @return DatabaseConfig The database settings.
+     */
+    public static DatabaseConfig getConfig() {
+        return PoolHolder.CONFIG;
+    }
 }
@@ -0,0 +1,153 @@
+package com.smartclinic.dao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Database connection settings: profile, JDBC URL, credentials and pool sizing.
+ * Settings are read from a properties file ({@code config/database.properties}, or the file named by
+ * {@code -Dsmartclinic.config}) and then overridden by system properties with the same keys.
+ *
+ * <p>Profiles:</p>
+ * <ul>
+ *   <li>{@code mysql} (default) - the MySQL server at {@code localhost:3306/smart_clinic}.</li>
+ *   <li>{@code embedded} - an in-process, in-memory database in MySQL compatibility mode that is created
+ *       from {@code sql/schema.sql} on first use, so DAOs can be exercised without a MySQL server.
+ *       Its default URL uses H2, whose jar must be on the runtime classpath.</li>
+ * </ul>
+ */
+public final class DatabaseConfig {
+
+    public static final String PROFILE_MYSQL = "mysql";
+    public static final String PROFILE_EMBEDDED = "embedded";
+
+    // Server-side prepared statements let the statement cache skip re-parsing, batch rewriting turns
+    // bulk-import batches into multi-row INSERTs, and cursor fetch makes setFetchSize() stream large result sets
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/smart_clinic" +
+            "?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
+    private static final String EMBEDDED_URL = "jdbc:h2:mem:smart_clinic;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final String profile;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final boolean initSchema;
+    private final Path schemaPath;
+    private final int poolMinSize;
+    private final int poolMaxSize;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    private DatabaseConfig(Properties props) {
+        this.profile = props.getProperty("smartclinic.db.profile", PROFILE_MYSQL).trim().toLowerCase(Locale.ROOT);
+        if (!PROFILE_MYSQL.equals(profile) && !PROFILE_EMBEDDED.equals(profile)) {
+            throw new IllegalArgumentException("Unknown database profile: " + profile);
+        }
+        boolean embedded = PROFILE_EMBEDDED.equals(profile);
+
+        this.url = props.getProperty("smartclinic.db.url", embedded ? EMBEDDED_URL : MYSQL_URL);
+        this.user = props.getProperty("smartclinic.db.user", embedded ? "sa" : "root");
+        this.password = props.getProperty("smartclinic.db.password", embedded ? "" : "tiger");
+        this.initSchema = Boolean.parseBoolean(props.getProperty("smartclinic.db.initSchema", String.valueOf(embedded)));
+        this.schemaPath = Paths.get(props.getProperty("smartclinic.db.schema", "sql/schema.sql"));
+        this.poolMinSize = Integer.parseInt(props.getProperty("smartclinic.pool.minSize", "2").trim());
+        this.poolMaxSize = Integer.parseInt(props.getProperty("smartclinic.pool.maxSize", "10").trim());
+        this.borrowTimeoutMillis = Long.parseLong(props.getProperty("smartclinic.pool.borrowTimeoutMs", "5000").trim());
+        this.statementCacheSize = Integer.parseInt(props.getProperty("smartclinic.pool.statementCacheSize", "64").trim());
+    }
+
+    /**
+     * Loads the settings from the properties file, if present, and the system properties.
+     * @return DatabaseConfig The effective settings.
+     */
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        Path file = Paths.get(System.getProperty("smartclinic.config", "config/database.properties"));
+        if (Files.isRegularFile(file)) {
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(in);
+            } catch (IOException e) {
+                System.out.println("[!] Could not read " + file + ": " + e.getMessage());
+            }
+        }
+        // System properties win over the file
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("smartclinic.db.") || key.startsWith("smartclinic.pool.")) {
+                props.setProperty(key, System.getProperty(key));
+            }
+        }
+        return new DatabaseConfig(props);
+    }
+
+    /**
+     * Gets the profile name.
+     * @return String {@link #PROFILE_MYSQL} or {@link #PROFILE_EMBEDDED}.
+     */
+    public String getProfile() { return profile; }
+
+    /**
+     * Gets the JDBC URL.
+     * @return String the URL.
+     */
+    public String getUrl() { return url; }
+
+    /**
+     * Gets the database user.
+     * @return String the user name.
+     */
+    public String getUser() { return user; }
+
+    /**
+     * Gets the database password.
+     * @return String the password.
+     */
+    String getPassword() { return password; }
+
+    /**
+     * Checks whether the schema script is run when the pool is created.
+     * @return boolean True for the embedded profile unless overridden.
+     */
+    public boolean isInitSchema() { return initSchema; }
+
+    /**
+     * Gets the schema script run when {@link #isInitSchema()} is set.
+     * @return Path the script path.
+     */
+    public Path getSchemaPath() { return schemaPath; }
+
+    /**
+     * Gets the number of connections kept open even when idle.
+     * @return int the minimum pool size.
+     */
+    public int getPoolMinSize() { return poolMinSize; }
+
+    /**
+     * Gets the maximum number of connections open at the same time.
+     * @return int the maximum pool size.
+     */
+    public int getPoolMaxSize() { return poolMaxSize; }
+
+    /**
+     * Gets how long a caller waits for a free connection.
+     * @return long the borrow timeout in milliseconds.
+     */
+    public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+
+    /**
+     * Gets the number of prepared statements cached per connection.
+     * @return int the statement cache size; 0 disables the cache.
+     */
+    public int getStatementCacheSize() { return statementCacheSize; }
+
+    @Override
+    public String toString() {
+        return "DatabaseConfig[profile=" + profile + ", url=" + url + ", user=" + user +
+                ", pool=" + poolMinSize + ".." + poolMaxSize + "]";
+    }
+}
@@ -1,37 +1,75 @@
 package com.smartclinic.dao;
 
 import com.smartclinic.model.Doctor;
+import com.smartclinic.model.DoctorList;
+import com.smartclinic.model.WeeklySchedule;
+import com.smartclinic.util.Metrics;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.*;
-import java.util.LinkedList;
+import java.time.DayOfWeek;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) class for handling CRUD operations related to doctors.
  * Provides methods to add, update, delete, and fetch doctors from the database.
+ * Successful writes are mirrored into the shared {@link DoctorDirectory}.
+ * A doctor's time slots are stored as one {@code doctor_slots} row per day of the week and start minute,
+ * written in the same transaction as the doctor row.
  */
 public class DoctorDAO {
 
+    // Call latencies and rows read by the list queries, reported by Metrics
+    private static final Metrics.Timer ADD_DOCTOR = Metrics.timer("DoctorDAO.addDoctor");
+    private static final Metrics.Timer UPDATE_DOCTOR = Metrics.timer("DoctorDAO.updateDoctor");
+    private static final Metrics.Timer DELETE_DOCTOR = Metrics.timer("DoctorDAO.deleteDoctor");
+    private static final Metrics.Timer IMPORT_DOCTORS = Metrics.timer("DoctorDAO.importDoctors");
+    private static final Metrics.Timer GET_DOCTOR_BY_ID = Metrics.timer("DoctorDAO.getDoctorById");
+    private static final Metrics.Timer GET_ALL_DOCTORS = Metrics.timer("DoctorDAO.getAllDoctors");
+    private static final Metrics.Timer GET_DOCTORS_BY_SPECIALIZATION = Metrics.timer("DoctorDAO.getDoctorsBySpecialization");
+    private static final Metrics.Timer SEARCH_DOCTORS = Metrics.timer("DoctorDAO.searchDoctors");
+    private static final Metrics.Counter ROWS_FETCHED = Metrics.counter("DoctorDAO.rowsFetched");
+
+    // One row per slot; day_of_week is the ISO day (1 = Monday), start_minute the minutes since midnight
+    static final String INSERT_SLOT_SQL = "INSERT INTO doctor_slots (doctor_id, day_of_week, start_minute) VALUES (?, ?, ?)";
+    // Doctors with their slot rows, one row per slot, grouped by doctor
+    private static final String SELECT_WITH_SLOTS = "SELECT d.id, d.name, d.specialization, s.day_of_week, s.start_minute " +
+            "FROM doctors d LEFT JOIN doctor_slots s ON s.doctor_id = d.id";
+
     /**
      * Adds a new doctor to the database.
      * @param doctor The doctor object containing the details to be added.
      * @return boolean True if the doctor was successfully added, false otherwise.
      */
     public boolean addDoctor(Doctor doctor) {
-        String sql = "INSERT INTO doctors (id, name, specialization, time_slots) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = ADD_DOCTOR.start();
+        try {
+            String sql = "INSERT INTO doctors (id, name, specialization) VALUES (?, ?, ?)";
+            try {
+                boolean added = UnitOfWork.run(() -> {
+                    try (Connection conn = DBConnection.getConnection();
+                         PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, doctor.getId());
-            stmt.setString(2, doctor.getName());
-            stmt.setString(3, doctor.getSpecialization());
-            stmt.setString(4, doctor.getTimeSlots());
+                        stmt.setString(1, doctor.getId());
+                        stmt.setString(2, doctor.getName());
+                        stmt.setString(3, doctor.getSpecialization());
 
-            return stmt.executeUpdate() > 0;
+                        if (stmt.executeUpdate() == 0) return false;
+                        insertSlots(conn, doctor);
+                        return true;
+                    }
+                });
+                if (added) DoctorDirectory.getInstance().put(doctor);
+                return added;
 
-        } catch (SQLException e) {
-            System.out.println("Error adding doctor: " + e.getMessage());
-            return false;
+            } catch (SQLException e) {
+                System.out.println("Error adding doctor: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            ADD_DOCTOR.stop(start);
         }
     }
 
@@ -41,20 +79,39 @@ public class DoctorDAO {
      * @return boolean True if the doctor details were successfully updated, false otherwise.
      */
     public boolean updateDoctor(Doctor doctor) {
-        String sql = "UPDATE doctors SET name = ?, specialization = ?, time_slots = ? WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = UPDATE_DOCTOR.start();
+        try {
+            String sql = "UPDATE doctors SET name = ?, specialization = ? WHERE id = ?";
+            try {
+                boolean updated = UnitOfWork.run(() -> {
+                    try (Connection conn = DBConnection.getConnection();
+                         PreparedStatement stmt = conn.prepareStatement(sql);
+                         PreparedStatement delete = conn.prepareStatement("DELETE FROM doctor_slots WHERE doctor_id = ?")) {
 
-            stmt.setString(1, doctor.getName());
-            stmt.setString(2, doctor.getSpecialization());
-            stmt.setString(3, doctor.getTimeSlots());
-            stmt.setString(4, doctor.getId());
+                        stmt.setString(1, doctor.getName());
+                        stmt.setString(2, doctor.getSpecialization());
+                        stmt.setString(3, doctor.getId());
+                        if (stmt.executeUpdate() == 0) return false;
 
-            return stmt.executeUpdate() > 0;
+                        // Replace the whole schedule
+                        delete.setString(1, doctor.getId());
+                        delete.executeUpdate();
+                        insertSlots(conn, doctor);
+                        return true;
+                    }
+                });
+                if (updated) {
+                    DoctorDirectory.getInstance().put(doctor);
+                    UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().invalidateDoctor(doctor.getId()));
+                }
+                return updated;
 
-        } catch (SQLException e) {
-            System.out.println("Error updating doctor: " + e.getMessage());
-            return false;
+            } catch (SQLException e) {
+                System.out.println("Error updating doctor: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            UPDATE_DOCTOR.stop(start);
         }
     }
 
@@ -64,70 +121,218 @@ public class DoctorDAO {
      * @return boolean True if the doctor was successfully deleted, false otherwise.
      */
     public boolean deleteDoctor(String id) {
-        String sql = "DELETE FROM doctors WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = DELETE_DOCTOR.start();
+        try {
+            String sql = "DELETE FROM doctors WHERE id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, id);
-            return stmt.executeUpdate() > 0;
+                stmt.setString(1, id);
+                if (stmt.executeUpdate() > 0) {
+                    DoctorDirectory.getInstance().remove(id);
+                    UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().invalidateDoctor(id));
+                    return true;
+                }
+                return false;
 
-        } catch (SQLException e) {
-            System.out.println("Error deleting doctor: " + e.getMessage());
-            return false;
+            } catch (SQLException e) {
+                System.out.println("Error deleting doctor: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            DELETE_DOCTOR.stop(start);
+        }
+    }
+
+    /**
+     * Bulk-imports doctors from CSV using JDBC batching; each doctor's slot rows are batched and committed with it.
+     * Expected columns: id, name, specialization, time_slots (quote the time slots, e.g. "09:00,10:00" or
+     * "MON-FRI 09:00,10:00; SAT 10:00").
+     * @param csv The CSV input; not closed by this method.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return ImportResult The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importDoctors(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        long start = IMPORT_DOCTORS.start();
+        try {
+            String sql = "INSERT INTO doctors (id, name, specialization) VALUES (?, ?, ?)";
+            CsvBatchImport<Doctor> importer = new CsvBatchImport<>(sql, 4,
+                    f -> new Doctor(f[0], f[1], f[2], f[3]),
+                    (stmt, doctor) -> {
+                        stmt.setString(1, doctor.getId());
+                        stmt.setString(2, doctor.getName());
+                        stmt.setString(3, doctor.getSpecialization());
+                    },
+                    INSERT_SLOT_SQL,
+                    (stmt, doctor) -> addSlotBatch(stmt, doctor.getId(), doctor.getSchedule()));
+            try {
+                return importer.run(csv, hasHeader, chunkSize);
+            } finally {
+                DoctorDirectory.getInstance().invalidate();
+            }
+        } finally {
+            IMPORT_DOCTORS.stop(start);
         }
     }
 
     /**
-     * Retrieves a doctor from the database by their ID.
+     * Retrieves a doctor by their ID, from the doctor directory when it holds the doctor
+     * and from the database otherwise.
      * @param id The ID of the doctor to retrieve.
      * @return Doctor The doctor object, or null if no doctor is found with the given ID.
      */
     public static Doctor getDoctorById(String id) {
-        String sql = "SELECT * FROM doctors WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = GET_DOCTOR_BY_ID.start();
+        try {
+            Doctor cached = DoctorDirectory.getInstance().getById(id);
+            if (cached != null) return cached;
 
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
+            String sql = SELECT_WITH_SLOTS + " WHERE d.id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            if (rs.next()) {
-                return new Doctor(
-                        rs.getString("id"),
-                        rs.getString("name"),
-                        rs.getString("specialization"),
-                        rs.getString("time_slots"));
-            }
+                stmt.setString(1, id);
+                DoctorList found = new DoctorList(1);
+                readDoctors(stmt.executeQuery(), found::add);
+                if (found.size() > 0) {
+                    return found.get(0);
+                }
 
-        } catch (SQLException e) {
-            System.out.println("Error fetching doctor: " + e.getMessage());
+            } catch (SQLException e) {
+                System.out.println("Error fetching doctor: " + e.getMessage());
+            }
+            return null;
+        } finally {
+            GET_DOCTOR_BY_ID.stop(start);
         }
-        return null;
     }
 
     /**
      * Retrieves all doctors from the database.
-     * @return List<Doctor> A list of all doctor objects in the database.
+     * @return DoctorList A column-oriented list of all doctors in the database.
      */
-    public List<Doctor> getAllDoctors() {
-        List<Doctor> list = new LinkedList<>();
-        String sql = "SELECT * FROM doctors";
+    public DoctorList getAllDoctors() {
+        long start = GET_ALL_DOCTORS.start();
+        try {
+            try {
+                return loadAllDoctors();
+            } catch (SQLException e) {
+                System.out.println("Error listing doctors: " + e.getMessage());
+                return new DoctorList();
+            }
+        } finally {
+            GET_ALL_DOCTORS.stop(start);
+        }
+    }
+
+    /**
+     * Retrieves the doctors with a given specialization (case-insensitive) from the doctor directory.
+     * @param specialization The specialization to look up.
+     * @return List<Doctor> An unmodifiable list of matching doctors.
+     */
+    public List<Doctor> getDoctorsBySpecialization(String specialization) {
+        long start = GET_DOCTORS_BY_SPECIALIZATION.start();
+        try {
+            return DoctorDirectory.getInstance().getBySpecialization(specialization);
+        } finally {
+            GET_DOCTORS_BY_SPECIALIZATION.stop(start);
+        }
+    }
+
+    /**
+     * Finds doctors whose ID or name contains the query, or whose specialization has a word starting with it,
+     * using the doctor directory.
+     * @param query The text to look for (case-insensitive).
+     * @param limit Maximum number of doctors to return, or 0 for no limit.
+     * @return List<Doctor> Matching doctors, best matches first.
+     */
+    public List<Doctor> searchDoctors(String query, int limit) {
+        long start = SEARCH_DOCTORS.start();
+        try {
+            return DoctorDirectory.getInstance().search(query, limit);
+        } finally {
+            SEARCH_DOCTORS.stop(start);
+        }
+    }
+
+    /**
+     * Reads every doctor row from the database.
+     * @return DoctorList A column-oriented list of all doctors in the database.
+     * @throws SQLException If the query fails.
+     */
+    static DoctorList loadAllDoctors() throws SQLException {
+        DoctorList list = new DoctorList();
+        String sql = SELECT_WITH_SLOTS + " ORDER BY d.id";
 
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                list.add(new Doctor(
-                        rs.getString("id"),
-                        rs.getString("name"),
-                        rs.getString("specialization"),
-                        rs.getString("time_slots")));
+            readDoctors(rs, list::add);
+        }
+
+        ROWS_FETCHED.add(list.size());
+        return list;
+    }
+
+    /**
+     * Reads doctor rows joined with their slot rows, where the rows of each doctor are adjacent,
+     * and builds one Doctor per doctor.
+     * @param rs The result of a {@code SELECT_WITH_SLOTS} query.
+     * @param out Receives the doctors in result order.
+     * @throws SQLException If reading the result fails.
+     */
+    private static void readDoctors(ResultSet rs, Consumer<Doctor> out) throws SQLException {
+        String id = null, name = null, specialization = null;
+        WeeklySchedule.Builder slots = null;
+        while (rs.next()) {
+            String rowId = rs.getString("id");
+            if (!rowId.equals(id)) {
+                if (id != null) out.accept(new Doctor(id, name, specialization, slots.build()));
+                id = rowId;
+                name = rs.getString("name");
+                specialization = rs.getString("specialization");
+                slots = new WeeklySchedule.Builder();
+            }
+            int day = rs.getInt("day_of_week");
+            if (!rs.wasNull()) {
+                slots.add(DayOfWeek.of(day), rs.getInt("start_minute"));
             }
+        }
+        if (id != null) out.accept(new Doctor(id, name, specialization, slots.build()));
+    }
 
-        } catch (SQLException e) {
-            System.out.println("Error listing doctors: " + e.getMessage());
+    /**
+     * Inserts the slot rows of a doctor with one batch.
+     * @param conn The connection of the transaction that writes the doctor row.
+     * @param doctor The doctor.
+     * @throws SQLException If an insert fails.
+     */
+    private static void insertSlots(Connection conn, Doctor doctor) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SLOT_SQL)) {
+            addSlotBatch(stmt, doctor.getId(), doctor.getSchedule());
+            stmt.executeBatch();
         }
+    }
 
-        return list;
+    /**
+     * Adds one batch entry per slot of a schedule to an {@code INSERT_SLOT_SQL} statement.
+     * @param stmt The prepared slot insert.
+     * @param doctorId The doctor's ID.
+     * @param schedule The doctor's slots.
+     * @throws SQLException If binding fails.
+     */
+    static void addSlotBatch(PreparedStatement stmt, String doctorId, WeeklySchedule schedule) throws SQLException {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int i = 0; i < schedule.slotCount(day); i++) {
+                stmt.setString(1, doctorId);
+                stmt.setInt(2, day.getValue());
+                stmt.setInt(3, schedule.slotAt(day, i));
+                stmt.addBatch();
+            }
+        }
     }
 }
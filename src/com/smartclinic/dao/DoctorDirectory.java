@@ -0,0 +1,227 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.model.Doctor;
+import com.smartclinic.util.NGramIndex;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared in-memory directory of doctors, indexed by ID, by specialization, and by substrings of
+ * ID and name and by words of the specialization, for search-as-you-type.
+ * It is loaded from the database on first use, kept current by the write methods of {@link DoctorDAO},
+ * and reloaded after a time-to-live so changes made by other application instances are picked up.
+ */
+public class DoctorDirectory {
+
+    // Reload interval, overridable with -Dsmartclinic.doctorDirectory.ttlSeconds
+    private static final long TTL_MILLIS = Long.getLong("smartclinic.doctorDirectory.ttlSeconds", 300L) * 1000L;
+
+    private static final DoctorDirectory INSTANCE = new DoctorDirectory();
+
+    // id -> doctor
+    private final Map<String, Doctor> byId = new ConcurrentHashMap<>();
+    // lower-cased specialization -> unmodifiable list of doctors, replaced on every change
+    private final Map<String, List<Doctor>> bySpecialization = new ConcurrentHashMap<>();
+    // substring index over (id, name) and word index over the specialization, replaced as a whole on reload
+    private volatile NGramIndex<String> textIndex = new NGramIndex<>(3, 2);
+    private volatile long loadedAtMillis = -1;
+    // Held while reloading, so one thread queries the database and the others wait for its result;
+    // not a monitor, since the query would pin a virtual thread's carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // IDs put or removed while a reload reads the database, null when no reload is running; guarded by this
+    private Set<String> changedDuringReload;
+
+    private DoctorDirectory() {}
+
+    /**
+     * Gets the shared directory instance.
+     * @return DoctorDirectory The directory used by all DAOs and services.
+     */
+    public static DoctorDirectory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a doctor by ID.
+     * @param id The doctor's ID.
+     * @return Doctor The doctor, or null if there is no doctor with this ID or the directory could not be loaded.
+     */
+    public Doctor getById(String id) {
+        if (id == null || !ensureLoaded()) return null;
+        return byId.get(id.trim());
+    }
+
+    /**
+     * Looks up all doctors with a specialization (case-insensitive).
+     * @param specialization The specialization to look up.
+     * @return List<Doctor> An unmodifiable list of matching doctors, empty if none.
+     */
+    public List<Doctor> getBySpecialization(String specialization) {
+        if (specialization == null || !ensureLoaded()) return List.of();
+        return bySpecialization.getOrDefault(key(specialization), List.of());
+    }
+
+    /**
+     * Finds doctors whose ID or name contains the query, or whose specialization has a word starting with it
+     * (case-insensitive), best matches first.
+     * @param query The text typed by the user.
+     * @param limit Maximum number of doctors to return, or 0 for no limit.
+     * @return List<Doctor> Matching doctors in rank order, empty if none or if the directory could not be loaded.
+     */
+    public List<Doctor> search(String query, int limit) {
+        if (query == null || !ensureLoaded()) return List.of();
+        List<Doctor> result = new ArrayList<>();
+        for (String id : textIndex.search(query, limit)) {
+            Doctor d = byId.get(id);
+            if (d != null) result.add(d);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the directory has been loaded and is still fresh.
+     * @return boolean True if the directory can answer lookups.
+     */
+    public boolean isLoaded() {
+        long loadedAt = loadedAtMillis;
+        return loadedAt >= 0 && System.currentTimeMillis() - loadedAt < TTL_MILLIS;
+    }
+
+    /**
+     * Loads the directory from the database if it is empty or stale.
+     * @return boolean True if the directory is usable afterwards.
+     */
+    private boolean ensureLoaded() {
+        if (isLoaded()) return true;
+        reloadLock.lock();
+        try {
+            // Another thread may have reloaded while this one waited
+            if (isLoaded()) return true;
+            trackChanges(true);
+            replaceAll(DoctorDAO.loadAllDoctors());
+            return true;
+        } catch (SQLException e) {
+            System.out.println("[✗] Error loading doctor directory: " + e.getMessage());
+            return false;
+        } finally {
+            trackChanges(false);
+            reloadLock.unlock();
+        }
+    }
+
+    private synchronized void trackChanges(boolean on) {
+        changedDuringReload = on ? new HashSet<>() : null;
+    }
+
+    /**
+     * Replaces the whole directory with a fresh list of doctors, keeping the current entries of doctors
+     * put or removed since the list was read, which are newer than the list's.
+     * @param snapshot Every doctor in the database when the reload started.
+     */
+    private synchronized void replaceAll(List<Doctor> snapshot) {
+        List<Doctor> doctors = snapshot;
+        if (!changedDuringReload.isEmpty()) {
+            doctors = new ArrayList<>(snapshot.size());
+            for (Doctor d : snapshot) {
+                if (!changedDuringReload.contains(d.getId())) doctors.add(d);
+            }
+            for (String id : changedDuringReload) {
+                Doctor current = byId.get(id);
+                if (current != null) doctors.add(current);
+            }
+        }
+
+        Map<String, List<Doctor>> grouped = new ConcurrentHashMap<>();
+        for (Doctor d : doctors) {
+            grouped.computeIfAbsent(key(d.getSpecialization()), k -> new ArrayList<>()).add(d);
+        }
+        grouped.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        Map<String, Doctor> ids = new ConcurrentHashMap<>();
+        NGramIndex<String> index = new NGramIndex<>(3, 2);
+        for (Doctor d : doctors) {
+            ids.put(d.getId(), d);
+            index.put(d.getId(), d.getId(), d.getName(), d.getSpecialization());
+        }
+
+        // Overwrite and then drop stale keys, so concurrent readers never see an empty directory
+        byId.putAll(ids);
+        byId.keySet().retainAll(ids.keySet());
+        bySpecialization.putAll(grouped);
+        bySpecialization.keySet().retainAll(grouped.keySet());
+        textIndex = index;
+        loadedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Marks the directory as stale so the next lookup reloads it from the database.
+     */
+    void invalidate() {
+        loadedAtMillis = -1;
+    }
+
+    /**
+     * Adds a doctor or replaces the entry for an existing doctor with the same ID.
+     * Does nothing until the directory has been loaded or is being loaded, since the next load picks the change up.
+     * @param doctor The added or updated doctor.
+     */
+    synchronized void put(Doctor doctor) {
+        if (loadedAtMillis < 0 && changedDuringReload == null) return;
+        if (changedDuringReload != null) changedDuringReload.add(doctor.getId());
+        Doctor previous = byId.put(doctor.getId(), doctor);
+        if (previous != null) {
+            removeFromSpecialization(previous);
+        }
+        String key = key(doctor.getSpecialization());
+        List<Doctor> updated = new ArrayList<>(bySpecialization.getOrDefault(key, List.of()));
+        updated.add(doctor);
+        bySpecialization.put(key, Collections.unmodifiableList(updated));
+        textIndex.put(doctor.getId(), doctor.getId(), doctor.getName(), doctor.getSpecialization());
+    }
+
+    /**
+     * Removes a doctor from the directory.
+     * @param id The ID of the deleted doctor.
+     */
+    synchronized void remove(String id) {
+        if (changedDuringReload != null) changedDuringReload.add(id);
+        Doctor previous = byId.remove(id);
+        if (previous != null) {
+            removeFromSpecialization(previous);
+        }
+        textIndex.remove(id);
+    }
+
+    /**
+     * Removes a doctor from its specialization bucket, dropping the bucket if it becomes empty.
+     * @param doctor The doctor to remove.
+     */
+    private void removeFromSpecialization(Doctor doctor) {
+        String key = key(doctor.getSpecialization());
+        List<Doctor> current = bySpecialization.get(key);
+        if (current == null) return;
+
+        List<Doctor> updated = new ArrayList<>(current.size());
+        for (Doctor d : current) {
+            if (!d.getId().equals(doctor.getId())) updated.add(d);
+        }
+        if (updated.isEmpty()) {
+            bySpecialization.remove(key);
+        } else {
+            bySpecialization.put(key, Collections.unmodifiableList(updated));
+        }
+    }
+
+    private static String key(String specialization) {
+        return specialization.trim().toLowerCase(Locale.ROOT);
+    }
+}
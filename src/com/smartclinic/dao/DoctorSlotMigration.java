@@ -0,0 +1,88 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.model.WeeklySchedule;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves doctor schedules from the old comma-separated {@code doctors.time_slots} column into the
+ * {@code doctor_slots} table. Runs when the connection pool is created. It does nothing once the column
+ * has been dropped, and only copies doctors without slot rows, so running it again is harmless.
+ */
+class DoctorSlotMigration {
+
+    // Same definition as in sql/schema.sql, for databases created before the table existed
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS doctor_slots (" +
+            "doctor_id VARCHAR(10) NOT NULL, " +
+            "day_of_week TINYINT NOT NULL, " +
+            "start_minute SMALLINT NOT NULL, " +
+            "PRIMARY KEY (doctor_id, day_of_week, start_minute), " +
+            "CHECK (day_of_week BETWEEN 1 AND 7), " +
+            "CHECK (start_minute BETWEEN 0 AND 1439), " +
+            "FOREIGN KEY (doctor_id) REFERENCES doctors(id) ON DELETE CASCADE)";
+
+    /**
+     * Copies the time slots of every doctor that has a {@code time_slots} value but no slot rows, in one transaction.
+     * Values that cannot be parsed are reported and skipped.
+     * @param conn A connection of its own; its auto-commit mode is changed.
+     * @return int The number of doctors whose slots were copied.
+     * @throws SQLException If reading or writing fails; nothing is committed in that case.
+     */
+    static int run(Connection conn) throws SQLException {
+        if (!hasColumn(conn, "doctors", "time_slots")) return 0;
+
+        conn.setAutoCommit(false);
+        String sql = "SELECT d.id, d.time_slots FROM doctors d WHERE d.time_slots IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM doctor_slots s WHERE s.doctor_id = d.id)";
+        int migrated = 0;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+
+            try (ResultSet rs = stmt.executeQuery(sql);
+                 PreparedStatement insert = conn.prepareStatement(DoctorDAO.INSERT_SLOT_SQL)) {
+                while (rs.next()) {
+                    String id = rs.getString("id");
+                    WeeklySchedule schedule;
+                    try {
+                        schedule = WeeklySchedule.parse(rs.getString("time_slots"));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("[!] Skipping time slots of doctor " + id + ": " + e.getMessage());
+                        continue;
+                    }
+                    DoctorDAO.addSlotBatch(insert, id, schedule);
+                    migrated++;
+                }
+                insert.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+        return migrated;
+    }
+
+    /**
+     * Checks whether a table has a column, whatever case the database stores names in.
+     * @param conn The connection.
+     * @param table The table name.
+     * @param column The column name.
+     * @return boolean True if the column exists.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        String[][] names = {{table, column}, {table.toUpperCase(), column.toUpperCase()}};
+        for (String[] name : names) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, name[0], name[1])) {
+                if (rs.next()) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,186 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique IDs from blocks reserved in the {@code id_sequences} table (hi-lo allocation).
+ * Reserving a block advances the sequence row by the block size in one short transaction, so every
+ * application instance gets its own range; the IDs of a block are then handed out from an
+ * {@link AtomicLong} without locking or a database round-trip. IDs of a block that is not used up
+ * before shutdown are skipped, never reused.
+ *
+ * <p>IDs are the prefix followed by the value in base 36, zero-padded to {@value #DIGITS} digits
+ * (e.g. "A0000002S"). They fit the VARCHAR(10) keys and, being longer, cannot clash with the
+ * 7-character random IDs given out before.</p>
+ */
+final class IdAllocator {
+
+    // Digits after the prefix; the largest value is 36^8 - 1
+    private static final int DIGITS = 8;
+    private static final long MAX_VALUE = 2_821_109_907_455L;
+
+    // Same definition as in sql/schema.sql, for databases created before the table existed
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS id_sequences (" +
+            "name VARCHAR(32) PRIMARY KEY, " +
+            "next_value BIGINT NOT NULL)";
+    private static final String SELECT_SQL = "SELECT next_value FROM id_sequences WHERE name = ? FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE id_sequences SET next_value = ? WHERE name = ?";
+    private static final String INSERT_SQL = "INSERT INTO id_sequences (name, next_value) VALUES (?, ?)";
+
+    // IDs reserved per round-trip, overridable with -Dsmartclinic.ids.blockSize
+    private static final int BLOCK_SIZE = Math.max(1, Integer.getInteger("smartclinic.ids.blockSize", 100));
+
+    private static final Metrics.Counter BLOCKS_RESERVED = Metrics.counter("IdAllocator.blocksReserved");
+
+    private static final IdAllocator APPOINTMENTS = new IdAllocator("appointments", "A", BLOCK_SIZE);
+
+    private final String sequence;
+    private final String prefix;
+    private final int blockSize;
+
+    // The current block; replaced under refillLock once its values run out
+    private volatile Block block = new Block(0, 0);
+    // Not a monitor: the refill queries the database, which would pin a virtual thread's carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private boolean tableChecked; // guarded by refillLock
+
+    private IdAllocator(String sequence, String prefix, int blockSize) {
+        this.sequence = sequence;
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Gets the allocator of appointment IDs.
+     * @return IdAllocator The shared allocator for the appointments table.
+     */
+    static IdAllocator appointments() {
+        return APPOINTMENTS;
+    }
+
+    /**
+     * Returns an ID that no other call, in this or any other instance sharing the database, returns.
+     * Only the call that finds the current block used up reaches the database.
+     * @return String The ID, e.g. "A0000002S".
+     * @throws SQLException If a new block cannot be reserved.
+     */
+    String next() throws SQLException {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return format(value);
+            }
+            refillLock.lock();
+            try {
+                // Another thread may have refilled while this one waited
+                if (block == current) {
+                    block = reserve();
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reserves the next block of the sequence on a connection of its own, so it is committed at once
+     * even when called inside a {@link UnitOfWork} that is later rolled back.
+     * @return Block The reserved values.
+     * @throws SQLException If the sequence cannot be read or advanced, or has run out of values.
+     */
+    private Block reserve() throws SQLException {
+        try (Connection conn = DBConnection.borrow()) {
+            if (!tableChecked) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_TABLE);
+                }
+                tableChecked = true;
+            }
+
+            conn.setAutoCommit(false);
+            // A second attempt is only needed if another instance created the sequence row at the same time
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    long first = claim(conn);
+                    conn.commit();
+                    BLOCKS_RESERVED.increment();
+                    return new Block(first, first + blockSize);
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (attempt > 0 || !isDuplicateKey(e)) throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the sequence row by one block, creating the row if the sequence is new.
+     * @param conn A connection in a transaction; the row stays locked until it ends.
+     * @return long The first value of the block.
+     * @throws SQLException If the row cannot be read or written, or the sequence has run out of values.
+     */
+    private long claim(Connection conn) throws SQLException {
+        long first;
+        try (PreparedStatement select = conn.prepareStatement(SELECT_SQL)) {
+            select.setString(1, sequence);
+            try (ResultSet rs = select.executeQuery()) {
+                first = rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+
+        boolean isNew = first < 0;
+        if (isNew) first = 1;
+        long end = first + blockSize;
+        if (end - 1 > MAX_VALUE) {
+            throw new SQLException("ID sequence '" + sequence + "' has run out of values.");
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(isNew ? INSERT_SQL : UPDATE_SQL)) {
+            if (isNew) {
+                stmt.setString(1, sequence);
+                stmt.setLong(2, end);
+            } else {
+                stmt.setLong(1, end);
+                stmt.setString(2, sequence);
+            }
+            stmt.executeUpdate();
+        }
+        return first;
+    }
+
+    private String format(long value) {
+        String digits = Long.toString(value, 36).toUpperCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(prefix.length() + DIGITS).append(prefix);
+        for (int i = digits.length(); i < DIGITS; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+
+    /**
+     * A reserved range of values, from the counter's start up to but excluding {@code end}.
+     */
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartclinic.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk CSV import: how many rows were stored and which rows failed and why.
+ */
+public class ImportResult {
+
+    /**
+     * A CSV row that could not be imported.
+     */
+    public static final class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        /**
+         * Gets the 1-based line number of the row in the CSV input.
+         * @return long The line number.
+         */
+        public long getLineNumber() { return lineNumber; }
+
+        /**
+         * Gets the reason the row was rejected.
+         * @return String The error message.
+         */
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    private long imported;
+    private final List<RowError> errors = new ArrayList<>();
+
+    void addImported(long count) {
+        imported += count;
+    }
+
+    void addError(long lineNumber, String message) {
+        errors.add(new RowError(lineNumber, message));
+    }
+
+    /**
+     * Gets the number of rows stored in the database.
+     * @return long The imported row count.
+     */
+    public long getImported() { return imported; }
+
+    /**
+     * Gets the number of rows that were rejected.
+     * @return int The failed row count.
+     */
+    public int getFailed() { return errors.size(); }
+
+    /**
+     * Gets the rejected rows with their error messages, in input order.
+     * @return List<RowError> The row errors.
+     */
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    @Override
+    public String toString() {
+        return "Imported: " + imported + ", Failed: " + errors.size();
+    }
+}
@@ -1,39 +1,63 @@
 package com.smartclinic.dao;
 
 import com.smartclinic.model.Patient;
+import com.smartclinic.model.PatientList;
+import com.smartclinic.util.Metrics;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Data Access Object (DAO) class for handling CRUD operations related to patients.
  * Provides methods to add, update, delete, and fetch patients from the database.
+ * Successful writes are mirrored into the shared {@link PatientDirectory}.
  */
 public class PatientDAO {
 
+    // Call latencies and rows read by the list queries, reported by Metrics
+    private static final Metrics.Timer ADD_PATIENT = Metrics.timer("PatientDAO.addPatient");
+    private static final Metrics.Timer GET_PATIENT_BY_ID = Metrics.timer("PatientDAO.getPatientById");
+    private static final Metrics.Timer UPDATE_PATIENT = Metrics.timer("PatientDAO.updatePatient");
+    private static final Metrics.Timer DELETE_PATIENT = Metrics.timer("PatientDAO.deletePatient");
+    private static final Metrics.Timer IMPORT_PATIENTS = Metrics.timer("PatientDAO.importPatients");
+    private static final Metrics.Timer GET_ALL_PATIENTS = Metrics.timer("PatientDAO.getAllPatients");
+    private static final Metrics.Timer SEARCH_PATIENTS = Metrics.timer("PatientDAO.searchPatients");
+    private static final Metrics.Counter ROWS_FETCHED = Metrics.counter("PatientDAO.rowsFetched");
+
     /**
      * Adds a new patient to the database.
      * @param patient The patient object containing the details to be added.
      * @return boolean True if the patient was successfully added, false otherwise.
      */
     public boolean addPatient(Patient patient) {
-        String sql = "INSERT INTO patients (id, name, age, contact, gender, issue) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = ADD_PATIENT.start();
+        try {
+            String sql = "INSERT INTO patients (id, name, age, contact, gender, issue) VALUES (?, ?, ?, ?, ?, ?)";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, patient.getId());
-            stmt.setString(2, patient.getName());
-            stmt.setInt(3, patient.getAge());
-            stmt.setString(4, patient.getContact());
-            stmt.setString(5, patient.getGender());
-            stmt.setString(6, patient.getIssue());
+                stmt.setString(1, patient.getId());
+                stmt.setString(2, patient.getName());
+                stmt.setInt(3, patient.getAge());
+                stmt.setString(4, patient.getContact());
+                stmt.setString(5, patient.getGender());
+                stmt.setString(6, patient.getIssue());
 
-            return stmt.executeUpdate() > 0;
+                if (stmt.executeUpdate() > 0) {
+                    PatientDirectory.getInstance().put(patient);
+                    return true;
+                }
+                return false;
 
-        } catch (SQLException e) {
-            System.out.println("Error adding patient: " + e.getMessage());
-            return false;
+            } catch (SQLException e) {
+                System.out.println("Error adding patient: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            ADD_PATIENT.stop(start);
         }
     }
 
@@ -43,28 +67,33 @@ public class PatientDAO {
      * @return Patient The patient object, or null if no patient is found with the given ID.
      */
     public Patient getPatientById(String id) {
-        String sql = "SELECT * FROM patients WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = GET_PATIENT_BY_ID.start();
+        try {
+            String sql = "SELECT * FROM patients WHERE id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, id);
-            ResultSet rs = stmt.executeQuery();
+                stmt.setString(1, id);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return new Patient(
-                        rs.getString("id"),
-                        rs.getString("name"),
-                        rs.getInt("age"),
-                        rs.getString("contact"),
-                        rs.getString("gender"),
-                        rs.getString("issue")
-                );
-            }
+                if (rs.next()) {
+                    return new Patient(
+                            rs.getString("id"),
+                            rs.getString("name"),
+                            rs.getInt("age"),
+                            rs.getString("contact"),
+                            rs.getString("gender"),
+                            rs.getString("issue")
+                    );
+                }
 
-        } catch (SQLException e) {
-            System.out.println("Error retrieving patient: " + e.getMessage());
+            } catch (SQLException e) {
+                System.out.println("Error retrieving patient: " + e.getMessage());
+            }
+            return null;
+        } finally {
+            GET_PATIENT_BY_ID.stop(start);
         }
-        return null;
     }
 
     /**
@@ -73,50 +102,151 @@ public class PatientDAO {
      * @return boolean True if the patient details were successfully updated, false otherwise.
      */
     public boolean updatePatient(Patient patient) {
-        String sql = "UPDATE patients SET name = ?, age = ?, contact = ?, gender = ?, issue = ? WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = UPDATE_PATIENT.start();
+        try {
+            String sql = "UPDATE patients SET name = ?, age = ?, contact = ?, gender = ?, issue = ? WHERE id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, patient.getName());
-            stmt.setInt(2, patient.getAge());
-            stmt.setString(3, patient.getContact());
-            stmt.setString(4, patient.getGender());
-            stmt.setString(5, patient.getIssue());
-            stmt.setString(6, patient.getId());
+                stmt.setString(1, patient.getName());
+                stmt.setInt(2, patient.getAge());
+                stmt.setString(3, patient.getContact());
+                stmt.setString(4, patient.getGender());
+                stmt.setString(5, patient.getIssue());
+                stmt.setString(6, patient.getId());
 
-            return stmt.executeUpdate() > 0;
+                if (stmt.executeUpdate() > 0) {
+                    PatientDirectory.getInstance().put(patient);
+                    return true;
+                }
+                return false;
 
-        } catch (SQLException e) {
-            System.out.println("Error updating patient: " + e.getMessage());
-            return false;
+            } catch (SQLException e) {
+                System.out.println("Error updating patient: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            UPDATE_PATIENT.stop(start);
         }
     }
 
     /**
-     * Deletes a patient from the database.
+     * Deletes a patient from the database, together with their appointments (by cascade).
      * @param id The ID of the patient to be deleted.
      * @return boolean True if the patient was successfully deleted, false otherwise.
      */
     public boolean deletePatient(String id) {
-        String sql = "DELETE FROM patients WHERE id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long start = DELETE_PATIENT.start();
+        try {
+            String doctorsSql = "SELECT DISTINCT doctor_id FROM appointments WHERE patient_id = ?";
+            String sql = "DELETE FROM patients WHERE id = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement doctors = conn.prepareStatement(doctorsSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                // Doctors whose cached slot occupancy the cascade makes stale
+                List<String> doctorIds = new ArrayList<>();
+                doctors.setString(1, id);
+                try (ResultSet rs = doctors.executeQuery()) {
+                    while (rs.next()) {
+                        doctorIds.add(rs.getString(1));
+                    }
+                }
+
+                stmt.setString(1, id);
+                if (stmt.executeUpdate() > 0) {
+                    PatientDirectory.getInstance().remove(id);
+                    for (String doctorId : doctorIds) {
+                        UnitOfWork.afterCommit(() -> SlotOccupancyIndex.getInstance().invalidateDoctor(doctorId));
+                    }
+                    return true;
+                }
+                return false;
 
-            stmt.setString(1, id);
-            return stmt.executeUpdate() > 0;
+            } catch (SQLException e) {
+                System.out.println("Error deleting patient: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            DELETE_PATIENT.stop(start);
+        }
+    }
 
-        } catch (SQLException e) {
-            System.out.println("Error deleting patient: " + e.getMessage());
-            return false;
+    /**
+     * Bulk-imports patients from CSV using JDBC batching.
+     * Expected columns: id, name, age, contact, gender, issue.
+     * @param csv The CSV input; not closed by this method.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return ImportResult The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importPatients(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        long start = IMPORT_PATIENTS.start();
+        try {
+            String sql = "INSERT INTO patients (id, name, age, contact, gender, issue) VALUES (?, ?, ?, ?, ?, ?)";
+            CsvBatchImport<Patient> importer = new CsvBatchImport<>(sql, 6,
+                    f -> new Patient(f[0], f[1], Integer.parseInt(f[2]), f[3], f[4], f[5]),
+                    (stmt, patient) -> {
+                        stmt.setString(1, patient.getId());
+                        stmt.setString(2, patient.getName());
+                        stmt.setInt(3, patient.getAge());
+                        stmt.setString(4, patient.getContact());
+                        stmt.setString(5, patient.getGender());
+                        stmt.setString(6, patient.getIssue());
+                    });
+            try {
+                return importer.run(csv, hasHeader, chunkSize);
+            } finally {
+                PatientDirectory.getInstance().invalidate();
+            }
+        } finally {
+            IMPORT_PATIENTS.stop(start);
         }
     }
 
     /**
      * Retrieves all patients from the database.
-     * @return List<Patient> A list of all patient objects in the database.
+     * @return PatientList A column-oriented list of all patients in the database.
+     */
+    public PatientList getAllPatients() {
+        long start = GET_ALL_PATIENTS.start();
+        try {
+            try {
+                return loadAllPatients();
+            } catch (SQLException e) {
+                System.out.println("Error fetching patients: " + e.getMessage());
+                return new PatientList();
+            }
+        } finally {
+            GET_ALL_PATIENTS.stop(start);
+        }
+    }
+
+    /**
+     * Finds patients whose ID or name contains the query, or whose issue has a word starting with it,
+     * using the in-memory patient directory.
+     * @param query The text to look for (case-insensitive).
+     * @param limit Maximum number of patients to return, or 0 for no limit.
+     * @return List<Patient> Matching patients, best matches first.
      */
-    public List<Patient> getAllPatients() {
-        List<Patient> list = new LinkedList<>();
+    public List<Patient> searchPatients(String query, int limit) {
+        long start = SEARCH_PATIENTS.start();
+        try {
+            return PatientDirectory.getInstance().search(query, limit);
+        } finally {
+            SEARCH_PATIENTS.stop(start);
+        }
+    }
+
+    /**
+     * Reads every patient row from the database.
+     * @return PatientList A column-oriented list of all patients in the database.
+     * @throws SQLException If the query fails.
+     */
+    static PatientList loadAllPatients() throws SQLException {
+        PatientList list = new PatientList();
         String sql = "SELECT * FROM patients";
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
@@ -133,10 +263,8 @@ public class PatientDAO {
                 );
                 list.add(p);
             }
-
-        } catch (SQLException e) {
-            System.out.println("Error fetching patients: " + e.getMessage());
         }
+        ROWS_FETCHED.add(list.size());
         return list;
     }
 }
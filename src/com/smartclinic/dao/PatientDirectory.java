@@ -0,0 +1,161 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.model.Patient;
+import com.smartclinic.util.NGramIndex;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared in-memory search index of patients by substrings of their ID and name and by words of their issue,
+ * for search-as-you-type.
+ * It is loaded from the database on first use, kept current by the write methods of {@link PatientDAO},
+ * and reloaded after a time-to-live so changes made by other application instances are picked up.
+ */
+public class PatientDirectory {
+
+    // Reload interval, overridable with -Dsmartclinic.patientDirectory.ttlSeconds
+    private static final long TTL_MILLIS = Long.getLong("smartclinic.patientDirectory.ttlSeconds", 300L) * 1000L;
+
+    private static final PatientDirectory INSTANCE = new PatientDirectory();
+
+    // id -> patient
+    private final Map<String, Patient> byId = new ConcurrentHashMap<>();
+    // substring index over (id, name) and word index over the issue, replaced as a whole on reload
+    private volatile NGramIndex<String> textIndex = new NGramIndex<>(3, 2);
+    private volatile long loadedAtMillis = -1;
+    // Held while reloading, so one thread queries the database and the others wait for its result;
+    // not a monitor, since the query would pin a virtual thread's carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // IDs put or removed while a reload reads the database, null when no reload is running; guarded by this
+    private Set<String> changedDuringReload;
+
+    private PatientDirectory() {}
+
+    /**
+     * Gets the shared directory instance.
+     * @return PatientDirectory The directory used by all DAOs and services.
+     */
+    public static PatientDirectory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds patients whose ID or name contains the query, or whose issue has a word starting with it
+     * (case-insensitive), best matches first.
+     * @param query The text typed by the user.
+     * @param limit Maximum number of patients to return, or 0 for no limit.
+     * @return List<Patient> Matching patients in rank order, empty if none or if the directory could not be loaded.
+     */
+    public List<Patient> search(String query, int limit) {
+        if (query == null || !ensureLoaded()) return List.of();
+        List<Patient> result = new ArrayList<>();
+        for (String id : textIndex.search(query, limit)) {
+            Patient p = byId.get(id);
+            if (p != null) result.add(p);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the directory has been loaded and is still fresh.
+     * @return boolean True if the directory can answer lookups.
+     */
+    public boolean isLoaded() {
+        long loadedAt = loadedAtMillis;
+        return loadedAt >= 0 && System.currentTimeMillis() - loadedAt < TTL_MILLIS;
+    }
+
+    /**
+     * Loads the directory from the database if it is empty or stale.
+     * @return boolean True if the directory is usable afterwards.
+     */
+    private boolean ensureLoaded() {
+        if (isLoaded()) return true;
+        reloadLock.lock();
+        try {
+            // Another thread may have reloaded while this one waited
+            if (isLoaded()) return true;
+            trackChanges(true);
+            replaceAll(PatientDAO.loadAllPatients());
+            return true;
+        } catch (SQLException e) {
+            System.out.println("[✗] Error loading patient directory: " + e.getMessage());
+            return false;
+        } finally {
+            trackChanges(false);
+            reloadLock.unlock();
+        }
+    }
+
+    private synchronized void trackChanges(boolean on) {
+        changedDuringReload = on ? new HashSet<>() : null;
+    }
+
+    /**
+     * Replaces the whole directory with a fresh list of patients, keeping the current entries of patients
+     * put or removed since the list was read, which are newer than the list's.
+     * @param snapshot Every patient in the database when the reload started.
+     */
+    private synchronized void replaceAll(List<Patient> snapshot) {
+        List<Patient> patients = snapshot;
+        if (!changedDuringReload.isEmpty()) {
+            patients = new ArrayList<>(snapshot.size());
+            for (Patient p : snapshot) {
+                if (!changedDuringReload.contains(p.getId())) patients.add(p);
+            }
+            for (String id : changedDuringReload) {
+                Patient current = byId.get(id);
+                if (current != null) patients.add(current);
+            }
+        }
+
+        Map<String, Patient> ids = new ConcurrentHashMap<>();
+        NGramIndex<String> index = new NGramIndex<>(3, 2);
+        for (Patient p : patients) {
+            ids.put(p.getId(), p);
+            index.put(p.getId(), p.getId(), p.getName(), p.getIssue());
+        }
+
+        // Overwrite and then drop stale keys, so concurrent readers never see an empty directory
+        byId.putAll(ids);
+        byId.keySet().retainAll(ids.keySet());
+        textIndex = index;
+        loadedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Marks the directory as stale so the next lookup reloads it from the database.
+     */
+    void invalidate() {
+        loadedAtMillis = -1;
+    }
+
+    /**
+     * Adds a patient or replaces the entry for an existing patient with the same ID.
+     * Does nothing until the directory has been loaded or is being loaded, since the next load picks the change up.
+     * @param patient The added or updated patient.
+     */
+    synchronized void put(Patient patient) {
+        if (loadedAtMillis < 0 && changedDuringReload == null) return;
+        if (changedDuringReload != null) changedDuringReload.add(patient.getId());
+        byId.put(patient.getId(), patient);
+        textIndex.put(patient.getId(), patient.getId(), patient.getName(), patient.getIssue());
+    }
+
+    /**
+     * Removes a patient from the directory.
+     * @param id The ID of the deleted patient.
+     */
+    synchronized void remove(String id) {
+        if (changedDuringReload != null) changedDuringReload.add(id);
+        byId.remove(id);
+        textIndex.remove(id);
+    }
+}
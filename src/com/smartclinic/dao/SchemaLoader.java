@@ -0,0 +1,66 @@
+package com.smartclinic.dao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs a SQL script such as {@code sql/schema.sql} statement by statement.
+ * Used to create the tables of the embedded database, which has a single schema,
+ * so {@code CREATE DATABASE} and {@code USE} statements are skipped.
+ */
+class SchemaLoader {
+
+    /**
+     * Runs every statement of a script on a connection.
+     * @param conn The connection to run the script on.
+     * @param script The script file; statements end with a semicolon and lines starting with -- are comments.
+     * @return int The number of statements executed.
+     * @throws IOException If the script cannot be read.
+     * @throws SQLException If a statement fails.
+     */
+    static int run(Connection conn, Path script) throws IOException, SQLException {
+        List<String> statements = split(Files.readAllLines(script, StandardCharsets.UTF_8));
+        int executed = 0;
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                String head = sql.toUpperCase(Locale.ROOT);
+                if (head.startsWith("CREATE DATABASE") || head.startsWith("USE ")) continue;
+                stmt.execute(sql);
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Splits script lines into statements, dropping comment lines.
+     * @param lines The script lines.
+     * @return List<String> The statements without their terminating semicolons.
+     */
+    private static List<String> split(List<String> lines) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(trimmed).append('\n');
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.length() - 2); // Drop ";\n"
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
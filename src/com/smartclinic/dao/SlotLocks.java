@@ -0,0 +1,72 @@
+package com.smartclinic.dao;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks that serialize bookings, cancellations and moves of the same doctor and date within this process.
+ * A fixed number of locks is shared by all (doctor, date) pairs, so memory stays constant while
+ * unrelated doctors and days rarely contend. Across processes, the unique key on
+ * (doctor_id, date, time_slot) in the appointments table is the final guard against double-booking.
+ */
+final class SlotLocks {
+
+    // Must be a power of two
+    private static final int STRIPES = 64;
+
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private SlotLocks() {}
+
+    /**
+     * Gets the lock guarding a doctor's slots on a date.
+     * @param doctorId The doctor's ID.
+     * @param date The appointment date.
+     * @return ReentrantLock The lock stripe for this doctor and date.
+     */
+    static ReentrantLock lockFor(String doctorId, LocalDate date) {
+        return locks[stripe(doctorId, date)];
+    }
+
+    /**
+     * Locks the stripes of two dates of a doctor, e.g. the old and new date of a moved appointment.
+     * Stripes are always taken in index order, so two callers locking the same pair cannot deadlock.
+     * @param doctorId The doctor's ID.
+     * @param first One appointment date.
+     * @param second The other appointment date.
+     * @return ReentrantLock[] The locks now held, to be released with {@link #unlock}; one if both dates share a stripe.
+     */
+    static ReentrantLock[] lockBoth(String doctorId, LocalDate first, LocalDate second) {
+        int a = stripe(doctorId, first);
+        int b = stripe(doctorId, second);
+        ReentrantLock[] held = a == b
+                ? new ReentrantLock[] {locks[a]}
+                : new ReentrantLock[] {locks[Math.min(a, b)], locks[Math.max(a, b)]};
+        for (int i = 0; i < held.length; i++) {
+            held[i].lock();
+        }
+        return held;
+    }
+
+    /**
+     * Releases locks taken with {@link #lockBoth}, in reverse order.
+     * @param held The locks returned by lockBoth.
+     */
+    static void unlock(ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    private static int stripe(String doctorId, LocalDate date) {
+        int h = 31 * doctorId.hashCode() + Long.hashCode(date.toEpochDay());
+        h ^= (h >>> 16);
+        return h & (STRIPES - 1);
+    }
+}
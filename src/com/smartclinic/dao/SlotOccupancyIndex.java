@@ -0,0 +1,466 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.model.AvailableSlot;
+import com.smartclinic.model.Doctor;
+import com.smartclinic.model.WeeklySchedule;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared in-memory index of booked slots, keyed by doctor and date.
+ * Each (doctor, date) entry holds a bitset of booked start minutes of the day and a count of its bookings,
+ * loaded from the database the first time that day is queried and then kept current by the booking,
+ * cancel and update paths in {@link AppointmentDAO}. Entries are reloaded after a time-to-live so bookings made by other
+ * application instances are picked up. Once per time-to-live, the next lookup sweeps out entries that are stale
+ * or for past dates, so the index only holds the days in recent use.
+ */
+public class SlotOccupancyIndex {
+
+    // Reload interval, overridable with -Dsmartclinic.slotIndex.ttlSeconds
+    private static final long TTL_MILLIS = Long.getLong("smartclinic.slotIndex.ttlSeconds", 60L) * 1000L;
+    // Days loaded with one query while searching for free slots
+    private static final int PRELOAD_DAYS = 14;
+
+    private static final SlotOccupancyIndex INSTANCE = new SlotOccupancyIndex();
+
+    // doctorId -> date -> occupancy of that day
+    private final Map<String, Map<LocalDate, DayOccupancy>> days = new ConcurrentHashMap<>();
+    // Time after which the next lookup sweeps out stale and past days
+    private final AtomicLong nextSweepMillis = new AtomicLong(System.currentTimeMillis() + TTL_MILLIS);
+
+    private SlotOccupancyIndex() {}
+
+    /**
+     * Gets the shared index instance.
+     * @return SlotOccupancyIndex The index used by all appointment DAOs.
+     */
+    public static SlotOccupancyIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether a doctor's slot on a date is free.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @return boolean True if the doctor offers the slot on that day and no appointment occupies it.
+     * @throws SQLException If the day has to be loaded and the query fails.
+     */
+    public boolean isFree(String doctorId, LocalDate date, LocalTime timeSlot) throws SQLException {
+        DayOccupancy day = day(doctorId, date);
+        day.lock.lock();
+        try {
+            day.ensureLoaded();
+            int minute = minuteOfDay(timeSlot);
+            return day.offers(minute) && !day.isBooked(minute);
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of appointments a doctor has on a date.
+     * @param doctorId The doctor's ID.
+     * @param date The date.
+     * @return int The number of booked slots that day.
+     * @throws SQLException If the day has to be loaded and the query fails.
+     */
+    public int bookedCount(String doctorId, LocalDate date) throws SQLException {
+        DayOccupancy day = day(doctorId, date);
+        day.lock.lock();
+        try {
+            day.ensureLoaded();
+            return day.booked;
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /**
+     * Picks the least-loaded doctor for a slot: among the doctors who offer the slot and have it free,
+     * the one with the fewest appointments that day. If every such slot is taken, the least-loaded doctor
+     * offering the slot is returned. Doctors who do not offer the slot that day are never chosen.
+     * Ties go to the doctor listed first.
+     * @param candidates The doctors to choose from, e.g. all doctors of a specialization.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @return String The chosen doctor's ID, or null if no candidate offers the slot.
+     * @throws SQLException If a doctor's day has to be loaded and the query fails.
+     */
+    public String leastLoaded(List<Doctor> candidates, LocalDate date, LocalTime timeSlot) throws SQLException {
+        int minute = minuteOfDay(timeSlot);
+        String bestId = null;
+        int bestRank = Integer.MAX_VALUE;
+        long bestBooked = Long.MAX_VALUE;
+        for (Doctor doctor : candidates) {
+            DayOccupancy day = day(doctor.getId(), date);
+            int rank;
+            int booked;
+            day.lock.lock();
+            try {
+                day.ensureLoaded();
+                if (!day.offers(minute)) continue;
+                // 0: the slot is free, 1: it is taken
+                rank = day.isBooked(minute) ? 1 : 0;
+                booked = day.booked;
+            } finally {
+                day.lock.unlock();
+            }
+            if (rank < bestRank || (rank == bestRank && booked < bestBooked)) {
+                bestId = doctor.getId();
+                bestRank = rank;
+                bestBooked = booked;
+            }
+        }
+        return bestId;
+    }
+
+    /**
+     * Finds the earliest free slots of a group of doctors, in date and time order.
+     * The bookings are loaded {@value #PRELOAD_DAYS} days at a time with one query per window, and
+     * days already in the index are not read again, so a search usually costs one or two queries
+     * and the scan itself runs in memory. Slots at the same time go to the doctor with fewer bookings that day.
+     * Slots of today that have already started are skipped.
+     * @param doctors The doctors to search, e.g. all doctors of a specialization.
+     * @param from The first date to search.
+     * @param horizonDays The number of days to search, starting with {@code from}.
+     * @param limit The maximum number of slots to return.
+     * @return List<AvailableSlot> Up to {@code limit} free slots, earliest first.
+     * @throws SQLException If the bookings cannot be loaded.
+     */
+    public List<AvailableSlot> findFree(List<Doctor> doctors, LocalDate from, int horizonDays, int limit) throws SQLException {
+        List<AvailableSlot> found = new ArrayList<>();
+        if (doctors.isEmpty() || limit < 1) return found;
+
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        int nowMinute = now.getHour() * 60 + now.getMinute();
+        LocalDate end = from.plusDays(horizonDays);
+        for (LocalDate window = from; window.isBefore(end) && found.size() < limit; window = window.plusDays(PRELOAD_DAYS)) {
+            LocalDate windowEnd = window.plusDays(PRELOAD_DAYS).isBefore(end) ? window.plusDays(PRELOAD_DAYS) : end;
+            if (windowEnd.isBefore(today) || windowEnd.isEqual(today)) continue;
+            preload(doctors, window, windowEnd.minusDays(1));
+
+            for (LocalDate date = window; date.isBefore(windowEnd) && found.size() < limit; date = date.plusDays(1)) {
+                if (date.isBefore(today)) continue;
+                addFreeSlots(doctors, date, date.isEqual(today) ? nowMinute : -1, limit - found.size(), found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds the earliest free slots of one day.
+     * @param doctors The doctors to search.
+     * @param date The date.
+     * @param afterMinute Only slots starting after this minute of the day are free; -1 for all.
+     * @param max The maximum number of slots to add.
+     * @param found Receives the slots.
+     * @throws SQLException If a day dropped from the index since the preload has to be reloaded and the query fails.
+     */
+    private void addFreeSlots(List<Doctor> doctors, LocalDate date, int afterMinute, int max, List<AvailableSlot> found)
+            throws SQLException {
+        List<FreeSlot> free = new ArrayList<>();
+        for (int d = 0; d < doctors.size(); d++) {
+            DayOccupancy day = day(doctors.get(d).getId(), date);
+            day.lock.lock();
+            try {
+                day.ensureLoaded();
+                for (int i = 0; i < day.slotCount(); i++) {
+                    int minute = day.slotAt(i);
+                    if (minute > afterMinute && !day.isBooked(minute)) {
+                        free.add(new FreeSlot(minute, day.booked, d));
+                    }
+                }
+            } finally {
+                day.lock.unlock();
+            }
+        }
+        free.sort(FreeSlot.ORDER);
+        for (int i = 0; i < free.size() && i < max; i++) {
+            FreeSlot slot = free.get(i);
+            Doctor doctor = doctors.get(slot.doctorIndex);
+            found.add(new AvailableSlot(doctor.getId(), doctor.getName(), date, LocalTime.of(slot.minute / 60, slot.minute % 60)));
+        }
+    }
+
+    /**
+     * Loads the bookings of several doctors over a date range with one query.
+     * Days that are already loaded and fresh keep their current state.
+     * @param doctors The doctors.
+     * @param first The first date.
+     * @param last The last date, inclusive.
+     * @throws SQLException If the query fails.
+     */
+    private void preload(List<Doctor> doctors, LocalDate first, LocalDate last) throws SQLException {
+        List<String> pending = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                DayOccupancy day = existingDay(doctor.getId(), date);
+                if (day == null || !day.isLoaded()) {
+                    pending.add(doctor.getId());
+                    break;
+                }
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        // doctorId -> date -> booked start minutes; served by the (doctor_id, date, time_slot) key
+        Map<String, Map<LocalDate, List<Integer>>> booked = new HashMap<>();
+        String sql = "SELECT doctor_id, date, time_slot FROM appointments WHERE doctor_id IN (" +
+                String.join(", ", Collections.nCopies(pending.size(), "?")) + ") AND date BETWEEN ? AND ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (String id : pending) stmt.setString(i++, id);
+            stmt.setObject(i++, first);
+            stmt.setObject(i, last);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                LocalTime slot = rs.getObject("time_slot", LocalTime.class);
+                if (slot == null) continue;
+                booked.computeIfAbsent(rs.getString("doctor_id"), k -> new HashMap<>())
+                        .computeIfAbsent(rs.getObject("date", LocalDate.class), k -> new ArrayList<>())
+                        .add(minuteOfDay(slot));
+            }
+        }
+
+        // A day loaded meanwhile by a booking is newer than this read, so it is left as it is
+        for (String id : pending) {
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                DayOccupancy day = day(id, date);
+                day.lock.lock();
+                try {
+                    if (!day.isLoaded()) day.loadFrom(booked.getOrDefault(id, Map.of()).getOrDefault(date, List.of()));
+                } finally {
+                    day.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the minute of the day a time starts in.
+     * @param time The time.
+     * @return int Minutes since midnight.
+     */
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * A free slot found while scanning one day.
+     */
+    private static final class FreeSlot {
+        // Earliest first; at the same time the less busy doctor, then the doctor listed first
+        static final Comparator<FreeSlot> ORDER = Comparator.<FreeSlot>comparingInt(s -> s.minute)
+                .thenComparingInt(s -> s.booked)
+                .thenComparingInt(s -> s.doctorIndex);
+
+        final int minute;
+        final int booked;
+        final int doctorIndex;
+
+        FreeSlot(int minute, int booked, int doctorIndex) {
+            this.minute = minute;
+            this.booked = booked;
+            this.doctorIndex = doctorIndex;
+        }
+    }
+
+    /**
+     * Records that a slot has been booked. Does nothing if the day has not been loaded yet,
+     * since loading it later reads the committed booking from the database.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     */
+    void markBooked(String doctorId, LocalDate date, LocalTime timeSlot) {
+        DayOccupancy day = existingDay(doctorId, date);
+        if (day == null) return;
+        day.lock.lock();
+        try {
+            if (day.isLoaded()) day.set(minuteOfDay(timeSlot), true);
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a slot has been freed. Does nothing if the day has not been loaded yet.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     */
+    void markFree(String doctorId, LocalDate date, LocalTime timeSlot) {
+        DayOccupancy day = existingDay(doctorId, date);
+        if (day == null) return;
+        day.lock.lock();
+        try {
+            if (day.isLoaded()) day.set(minuteOfDay(timeSlot), false);
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every loaded day of a doctor, e.g. after the doctor's time slots changed.
+     * @param doctorId The doctor's ID, or null to drop the whole index.
+     */
+    void invalidateDoctor(String doctorId) {
+        if (doctorId == null) {
+            days.clear();
+        } else {
+            days.remove(doctorId);
+        }
+    }
+
+    private DayOccupancy day(String doctorId, LocalDate date) {
+        sweepIfDue();
+        return days.computeIfAbsent(doctorId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(date, k -> new DayOccupancy(doctorId, date));
+    }
+
+    private DayOccupancy existingDay(String doctorId, LocalDate date) {
+        Map<LocalDate, DayOccupancy> doctorDays = days.get(doctorId);
+        return doctorDays == null ? null : doctorDays.get(date);
+    }
+
+    /**
+     * Drops the days that are stale or in the past, and doctors left without days, if the last sweep was
+     * a time-to-live ago. Only the thread that claims the sweep does the work; the others return at once.
+     * A lookup still holding a dropped day finishes with it, and the next lookup loads a fresh one.
+     */
+    private void sweepIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextSweepMillis.get();
+        if (now < due || !nextSweepMillis.compareAndSet(due, now + TTL_MILLIS)) return;
+
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<String, Map<LocalDate, DayOccupancy>> doctor : days.entrySet()) {
+            doctor.getValue().values().removeIf(day -> day.isEvictable(today));
+            days.computeIfPresent(doctor.getKey(), (id, doctorDays) -> doctorDays.isEmpty() ? null : doctorDays);
+        }
+    }
+
+    /**
+     * Booked slots of one doctor on one date, as a bitset over the minutes of the day.
+     * All access holds the instance's lock. It is a {@link ReentrantLock} rather than a monitor because loading
+     * runs JDBC queries under it, and a virtual thread blocked inside a monitor would pin its carrier thread.
+     */
+    private static final class DayOccupancy {
+        final ReentrantLock lock = new ReentrantLock();
+        private final String doctorId;
+        private final LocalDate date;
+        private WeeklySchedule schedule;             // the doctor's slots, null if the doctor no longer exists
+        private final long[] bits = new long[(24 * 60 + 63) >>> 6]; // bit m: a booking starts at minute m
+        private int booked;                          // number of booked slots, in and out of the doctor's schedule
+        private long loadedAtMillis = -1;
+
+        DayOccupancy(String doctorId, LocalDate date) {
+            this.doctorId = doctorId;
+            this.date = date;
+        }
+
+        boolean isLoaded() {
+            return loadedAtMillis >= 0 && System.currentTimeMillis() - loadedAtMillis < TTL_MILLIS;
+        }
+
+        /**
+         * Checks whether the sweep may drop this day: it is in the past, or stale or never loaded,
+         * and no lookup is using it right now.
+         * @param today The current date.
+         * @return boolean True if the day can be dropped.
+         */
+        boolean isEvictable(LocalDate today) {
+            if (!lock.tryLock()) return false;
+            try {
+                return date.isBefore(today) || !isLoaded();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Loads the booked slots of this day from the database if not loaded or stale.
+         * @throws SQLException If the query fails.
+         */
+        void ensureLoaded() throws SQLException {
+            if (isLoaded()) return;
+
+            reset();
+            String sql = "SELECT time_slot FROM appointments WHERE doctor_id = ? AND date = ?";
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setString(1, doctorId);
+                stmt.setObject(2, date);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    LocalTime slot = rs.getObject("time_slot", LocalTime.class);
+                    if (slot != null) set(minuteOfDay(slot), true);
+                }
+            }
+            loadedAtMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Fills this day from bookings read by a query over several days.
+         * @param bookedMinutes The start minutes of the booked slots of this day.
+         */
+        void loadFrom(List<Integer> bookedMinutes) {
+            reset();
+            for (int minute : bookedMinutes) set(minute, true);
+            loadedAtMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Re-reads the doctor's time slots and clears all bookings.
+         */
+        private void reset() {
+            Doctor doctor = DoctorDAO.getDoctorById(doctorId);
+            schedule = doctor == null ? null : doctor.getSchedule();
+            Arrays.fill(bits, 0L);
+            booked = 0;
+        }
+
+        int slotCount() {
+            return schedule == null ? 0 : schedule.slotCount(date.getDayOfWeek());
+        }
+
+        int slotAt(int i) {
+            return schedule.slotAt(date.getDayOfWeek(), i);
+        }
+
+        boolean offers(int minute) {
+            return schedule != null && schedule.offers(date.getDayOfWeek(), minute);
+        }
+
+        boolean isBooked(int minute) {
+            return (bits[minute >>> 6] & (1L << minute)) != 0;
+        }
+
+        void set(int minute, boolean book) {
+            if (isBooked(minute) == book) return;
+            if (book) bits[minute >>> 6] |= 1L << minute;
+            else bits[minute >>> 6] &= ~(1L << minute);
+            booked += book ? 1 : -1;
+        }
+    }
+}
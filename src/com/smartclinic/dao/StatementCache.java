@@ -0,0 +1,216 @@
+package com.smartclinic.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements keyed by SQL text.
+ * A cached statement is handed out as a logical statement whose close() clears its parameters and open
+ * result sets, and restores the fetch size, row limit and query timeout it was prepared with, but keeps the
+ * underlying (server-side) statement alive for the next caller.
+ * Instances are only used by the thread that currently holds the owning pooled connection.
+ */
+class StatementCache {
+
+    // Counters shared by the caches of all pooled connections
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final Connection raw;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a cache for one physical connection.
+     * @param raw The physical connection statements are prepared on.
+     * @param maxSize Maximum number of statements kept open; the least recently used one is evicted.
+     */
+    StatementCache(Connection raw, int maxSize) {
+        this.raw = raw;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxSize) return false;
+                evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a logical prepared statement for the given SQL, reusing a cached one when possible.
+     * If the cached statement for this SQL is already in use by the same borrower, an uncached
+     * statement is prepared instead.
+     * @param sql The SQL text.
+     * @return PreparedStatement The statement to use; closing it returns it to the cache.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && entry.closed) {
+            entry = null;  // Its reset failed; prepare a replacement
+        }
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+        } else if (entry == null) {
+            misses.incrementAndGet();
+            entry = new Entry(raw.prepareStatement(sql));
+            entries.put(sql, entry);
+        } else {
+            misses.incrementAndGet();
+            return raw.prepareStatement(sql);
+        }
+        entry.inUse = true;
+        return entry.lease();
+    }
+
+    /**
+     * Gets the number of prepare calls served from a cache.
+     * @return long The cache hit count.
+     */
+    static long getHits() { return hits.get(); }
+
+    /**
+     * Gets the number of prepare calls that had to prepare a new statement.
+     * @return long The cache miss count.
+     */
+    static long getMisses() { return misses.get(); }
+
+    /**
+     * Gets the number of statements closed because a cache was full.
+     * @return long The eviction count.
+     */
+    static long getEvictions() { return evictions.get(); }
+
+    /**
+     * A cached physical statement and its bookkeeping.
+     */
+    private static final class Entry {
+        private final PreparedStatement statement;
+        // The driver's settings for a new statement, restored when a borrower changed them
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean inUse;
+        private boolean evicted;
+        private boolean closed;
+
+        Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        PreparedStatement lease() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new LeaseHandler(this));
+        }
+
+        /**
+         * Called when the statement leaves the cache; closes it now or once its borrower is done.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) closeQuietly();
+        }
+
+        /**
+         * Makes the statement available again after a borrower closed it.
+         * @param openResults Result sets produced during the lease, closed here.
+         */
+        void release(List<ResultSet> openResults) {
+            inUse = false;
+            for (ResultSet rs : openResults) {
+                try {
+                    rs.close();
+                } catch (SQLException ignored) {
+                    // The statement is reset or closed below either way
+                }
+            }
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                // e.g. a streaming fetch size would otherwise make the next borrower stream a small lookup.
+                // The row limit goes first: drivers reject a fetch size above the current limit
+                if (statement.getMaxRows() != defaultMaxRows) statement.setMaxRows(defaultMaxRows);
+                if (statement.getFetchSize() != defaultFetchSize) statement.setFetchSize(defaultFetchSize);
+                if (statement.getQueryTimeout() != defaultQueryTimeout) statement.setQueryTimeout(defaultQueryTimeout);
+            } catch (SQLException e) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            closed = true;
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.out.println("[!] Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Routes calls on a logical statement to the cached one until the logical statement is closed.
+     */
+    private static final class LeaseHandler implements InvocationHandler {
+        private Entry entry;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+
+        LeaseHandler(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (entry != null) {
+                        Entry returning = entry;
+                        entry = null;
+                        returning.release(openResults);
+                        openResults.clear();
+                    }
+                    return null;
+                case "isClosed":
+                    return entry == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + (entry == null ? "closed" : entry.statement) + "]";
+                default:
+                    if (entry == null) throw new SQLException("Statement is closed.");
+                    try {
+                        Object result = method.invoke(entry.statement, args);
+                        if (result instanceof ResultSet) {
+                            openResults.add((ResultSet) result);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.smartclinic.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A database transaction that spans several DAO calls on the current thread.
+ * While a unit of work is open, {@link DBConnection#getConnection()} returns its single borrowed connection
+ * to every DAO method on the thread, so a multi-step flow uses one connection and commits once.
+ * Closing the connection inside a DAO leaves it open for the next step.
+ * Units of work nest: an inner {@link #begin()} joins the outer one, and only the outermost one commits.
+ *
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin()) {
+ *     ...DAO calls...
+ *     uow.commit();
+ * }
+ * </pre>
+ *
+ * In-memory caches are updated as the DAOs write; if the work is rolled back they are invalidated
+ * and reload from the database on next use. State that other threads act on, such as booked slots and
+ * waitlists, is published with {@link #afterCommit(Runnable)} instead, so it never shows a write that
+ * is later rolled back. Bulk imports always run on a connection of their own.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    /**
+     * A block of DAO calls run inside a unit of work.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Connection pooled;
+    private final Connection shared;
+    private final UnitOfWork outer;
+    private boolean committed;
+    // Set once the shared transaction has been rolled back, possibly by a joined unit of work
+    private boolean rolledBack;
+    private boolean closed;
+    // Actions to run after the commit; only the outermost unit of work holds them
+    private List<Runnable> afterCommit;
+
+    private UnitOfWork(Connection pooled, UnitOfWork outer) {
+        this.pooled = pooled;
+        this.outer = outer;
+        this.shared = outer != null ? outer.shared : (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new SharedHandler(pooled));
+    }
+
+    /**
+     * Starts a unit of work on the current thread, or joins the one already open.
+     * @return UnitOfWork The unit of work; close it in a try-with-resources block.
+     * @throws SQLException If no connection can be borrowed or a transaction cannot be started.
+     */
+    public static UnitOfWork begin() throws SQLException {
+        UnitOfWork outer = CURRENT.get();
+        if (outer != null) {
+            UnitOfWork joined = new UnitOfWork(outer.pooled, outer);
+            CURRENT.set(joined);
+            return joined;
+        }
+
+        Connection conn = DBConnection.borrow();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        UnitOfWork uow = new UnitOfWork(conn, null);
+        CURRENT.set(uow);
+        return uow;
+    }
+
+    /**
+     * Runs a block of DAO calls in a unit of work and commits it, or rolls it back if the block throws.
+     * @param work The DAO calls.
+     * @param <T> The result type.
+     * @return T The block's result.
+     * @throws SQLException If the block, the commit or borrowing the connection fails.
+     */
+    public static <T> T run(Work<T> work) throws SQLException {
+        try (UnitOfWork uow = begin()) {
+            T result = work.execute();
+            uow.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Gets the unit of work open on the current thread.
+     * @return UnitOfWork The innermost open unit of work, or null if there is none.
+     */
+    static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs an action once the unit of work open on the current thread has committed, or at once if none is open.
+     * The action is dropped if the work is rolled back.
+     * @param action The action, e.g. publishing a booking to a shared in-memory index.
+     */
+    static void afterCommit(Runnable action) {
+        UnitOfWork uow = CURRENT.get();
+        if (uow == null) {
+            action.run();
+            return;
+        }
+        while (uow.outer != null) {
+            uow = uow.outer;
+        }
+        if (uow.afterCommit == null) {
+            uow.afterCommit = new ArrayList<>();
+        }
+        uow.afterCommit.add(action);
+    }
+
+    /**
+     * Gets the connection shared by the DAO calls of this unit of work. Closing it has no effect.
+     * @return Connection The shared connection.
+     */
+    Connection connection() {
+        return shared;
+    }
+
+    /**
+     * Commits the work. For a joined unit of work this only marks it as complete; the outermost one commits
+     * and then runs the actions registered with {@link #afterCommit(Runnable)}.
+     * @throws SQLException If the commit fails.
+     */
+    public void commit() throws SQLException {
+        if (closed) throw new SQLException("Unit of work is already closed.");
+        if (rolledBack) throw new SQLException("Unit of work was rolled back by a nested unit of work.");
+        if (outer == null) {
+            pooled.commit();
+        }
+        committed = true;
+        if (outer == null && afterCommit != null) {
+            List<Runnable> actions = afterCommit;
+            afterCommit = null;
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    System.out.println("[!] Error running after-commit action: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the unit of work. An outermost unit of work that was not committed is rolled back and the
+     * connection is returned to the pool. A joined one that was not committed rolls back the whole transaction.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        CURRENT.set(outer);
+
+        if (!committed) {
+            afterCommit = null;
+            rollbackQuietly();
+            if (outer != null) {
+                // The enclosing work cannot commit part of a transaction that has already been rolled back
+                outer.committed = false;
+                outer.rolledBack = true;
+            }
+        }
+        if (outer == null) {
+            try {
+                pooled.close();
+            } catch (SQLException e) {
+                System.out.println("[!] Error returning unit-of-work connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rolls the transaction back and drops cached state that may reflect the discarded writes.
+     */
+    private void rollbackQuietly() {
+        if (!rolledBack) {
+            try {
+                pooled.rollback();
+            } catch (SQLException e) {
+                System.out.println("[✗] Error rolling back unit of work: " + e.getMessage());
+            }
+            rolledBack = true;
+        }
+        DoctorDirectory.getInstance().invalidate();
+        PatientDirectory.getInstance().invalidate();
+        SlotOccupancyIndex.getInstance().invalidateDoctor(null);
+    }
+
+    /**
+     * Forwards calls to the unit of work's connection, except that close() is a no-op and
+     * transaction control is reserved for the unit of work itself.
+     */
+    private static final class SharedHandler implements InvocationHandler {
+        private final Connection target;
+
+        SharedHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "commit":
+                case "setAutoCommit":
+                    throw new SQLException("Transaction is managed by the enclosing unit of work.");
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        throw new SQLException("Transaction is managed by the enclosing unit of work.");
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWorkConnection[" + target + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
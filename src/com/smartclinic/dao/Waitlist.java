@@ -0,0 +1,310 @@
+package com.smartclinic.dao;
+
+import com.smartclinic.model.SlotKey;
+import com.smartclinic.model.WeeklySchedule;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Shared, persistent waitlist of patients per doctor, date and time slot.
+ * Each slot has its own FIFO queue guarded by its own monitor, so different slots never contend.
+ * Every enqueue and promotion is handed to a background appender thread, the only writer of a local
+ * log file, which is replayed and compacted on startup so waitlisted patients survive a restart.
+ * The appender writes whatever records have queued up in one write and then forces them to disk
+ * (unless {@code -Dsmartclinic.waitlist.fsync=false}), so a crash of the process or the machine loses
+ * at most the operations of the last few milliseconds; a normal shutdown writes all of them.
+ */
+public class Waitlist {
+
+    // Log location, overridable with -Dsmartclinic.waitlist.log
+    private static final Path LOG_PATH = Paths.get(System.getProperty("smartclinic.waitlist.log", "data/waitlist.log"));
+
+    // Force each written batch to disk, overridable with -Dsmartclinic.waitlist.fsync
+    private static final boolean FSYNC = Boolean.parseBoolean(System.getProperty("smartclinic.waitlist.fsync", "true"));
+
+    private static final String ENQUEUE = "E";
+    private static final String PROMOTE = "P";
+    // Queued by close() to stop the appender; log records are never empty
+    private static final String STOP = "";
+
+    private static final Waitlist INSTANCE = new Waitlist(LOG_PATH);
+
+    private final Map<WaitKey, ArrayDeque<String>> queues = new ConcurrentHashMap<>();
+    private final Path logPath;
+    // Records waiting for the appender, in the order the slot monitors produced them
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    // Written only by the appender thread once the constructor has opened it
+    private FileChannel log;
+    private Thread appender;
+
+    /**
+     * Creates a waitlist backed by the given log, replaying and compacting it first.
+     * @param logPath The append-only log file.
+     */
+    Waitlist(Path logPath) {
+        this.logPath = logPath;
+        replay();
+        compact();
+        if (log != null) {
+            appender = new Thread(this::drain, "smartclinic-waitlist-log");
+            appender.setDaemon(true);
+            appender.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "smartclinic-waitlist-shutdown"));
+        }
+    }
+
+    /**
+     * Gets the shared waitlist instance.
+     * @return Waitlist The waitlist used by all appointment DAOs.
+     */
+    public static Waitlist getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a patient to the end of a slot's waitlist.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @param patientId The patient's ID.
+     */
+    public void enqueue(String doctorId, LocalDate date, LocalTime timeSlot, String patientId) {
+        WaitKey key = new WaitKey(doctorId, SlotKey.of(date, timeSlot));
+        while (true) {
+            ArrayDeque<String> queue = queues.computeIfAbsent(key, k -> new ArrayDeque<>());
+            synchronized (queue) {
+                // The queue may have been emptied and dropped by promote() before we locked it
+                if (queues.get(key) != queue) continue;
+                append(ENQUEUE, key, patientId);
+                queue.addLast(patientId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the patient at the head of a slot's waitlist.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @return String The next patient's ID, or null if nobody is waiting.
+     */
+    public String promote(String doctorId, LocalDate date, LocalTime timeSlot) {
+        WaitKey key = new WaitKey(doctorId, SlotKey.of(date, timeSlot));
+        ArrayDeque<String> queue = queues.get(key);
+        if (queue == null) return null;
+        synchronized (queue) {
+            String patientId = queue.peekFirst();
+            if (patientId == null) return null;
+            append(PROMOTE, key, patientId);
+            queue.pollFirst();
+            if (queue.isEmpty()) queues.remove(key, queue);
+            return patientId;
+        }
+    }
+
+    /**
+     * Returns the patient at the head of a slot's waitlist without removing them.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @return String The next patient's ID, or null if nobody is waiting.
+     */
+    public String peek(String doctorId, LocalDate date, LocalTime timeSlot) {
+        ArrayDeque<String> queue = queues.get(new WaitKey(doctorId, SlotKey.of(date, timeSlot)));
+        if (queue == null) return null;
+        synchronized (queue) {
+            return queue.peekFirst();
+        }
+    }
+
+    /**
+     * Returns the patients waiting for a slot, in order.
+     * @param doctorId The doctor's ID.
+     * @param date The date of the appointment.
+     * @param timeSlot The time slot of the appointment.
+     * @return List<String> A snapshot of the waiting patients' IDs.
+     */
+    public List<String> getWaiting(String doctorId, LocalDate date, LocalTime timeSlot) {
+        ArrayDeque<String> queue = queues.get(new WaitKey(doctorId, SlotKey.of(date, timeSlot)));
+        if (queue == null) return List.of();
+        synchronized (queue) {
+            return new ArrayList<>(queue);
+        }
+    }
+
+    /**
+     * Queues one record for the appender thread. Never blocks and does no I/O, so it is safe to call
+     * while holding a slot's monitor; records of one slot reach the log in the order they were queued.
+     * @param op The operation code.
+     * @param key The slot.
+     * @param patientId The patient's ID.
+     */
+    private void append(String op, WaitKey key, String patientId) {
+        if (appender == null) return;
+        pending.add(op + '\t' + key.doctorId + '\t' + SlotKey.date(key.slot) + '\t' + SlotKey.time(key.slot) + '\t' + patientId + '\n');
+    }
+
+    /**
+     * Body of the appender thread: writes queued records in batches until {@link #close()} is called.
+     */
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch);
+
+            boolean stop = false;
+            sb.setLength(0);
+            for (String record : batch) {
+                if (record.isEmpty()) stop = true;
+                else sb.append(record);
+            }
+            batch.clear();
+            if (sb.length() > 0) write(sb);
+            if (stop) return;
+        }
+    }
+
+    /**
+     * Writes records to the end of the log and forces them to disk if configured.
+     * @param records One or more complete log lines.
+     */
+    private void write(CharSequence records) {
+        try {
+            ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(records));
+            while (buf.hasRemaining()) {
+                log.write(buf);
+            }
+            if (FSYNC) log.force(false);
+        } catch (IOException e) {
+            System.out.println("[✗] Error writing waitlist log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every queued record and closes the log. Called on shutdown.
+     */
+    void close() {
+        if (appender == null) return;
+        pending.add(STOP);
+        try {
+            appender.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.out.println("[✗] Error closing waitlist log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the queues from the log.
+     */
+    private void replay() {
+        if (!Files.exists(logPath)) return;
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] f = line.split("\t");
+                if (f.length != 5) continue; // skip a torn last line
+                WaitKey key;
+                try {
+                    key = new WaitKey(f[1], SlotKey.of(LocalDate.parse(f[2]), WeeklySchedule.parseTime(f[3])));
+                } catch (DateTimeParseException | IllegalArgumentException e) {
+                    continue; // skip an unreadable line
+                }
+                if (ENQUEUE.equals(f[0])) {
+                    queues.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(f[4]);
+                } else if (PROMOTE.equals(f[0])) {
+                    ArrayDeque<String> queue = queues.get(key);
+                    if (queue != null) queue.remove(f[4]);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("[✗] Error reading waitlist log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the log with only the patients still waiting and opens it for appending.
+     */
+    private void compact() {
+        try {
+            Path dir = logPath.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+
+            Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<WaitKey, ArrayDeque<String>> e : queues.entrySet()) {
+                    WaitKey key = e.getKey();
+                    for (String patientId : e.getValue()) {
+                        out.write(ENQUEUE + '\t' + key.doctorId + '\t' + SlotKey.date(key.slot) + '\t' + SlotKey.time(key.slot) + '\t' + patientId + '\n');
+                    }
+                }
+            }
+            Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            queues.values().removeIf(ArrayDeque::isEmpty);
+
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.out.println("[✗] Waitlist log unavailable, waitlist will not persist: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Identifies one doctor's time slot on one date.
+     */
+    private static final class WaitKey {
+        private final String doctorId;
+        private final int slot;      // SlotKey of the date and time
+        private final int hash;
+
+        WaitKey(String doctorId, int slot) {
+            this.doctorId = doctorId;
+            this.slot = slot;
+            this.hash = 31 * doctorId.hashCode() + slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WaitKey)) return false;
+            WaitKey other = (WaitKey) o;
+            return slot == other.slot && doctorId.equals(other.doctorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.smartclinic.model;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 /**
  * Represents an appointment in the smart clinic system.
  * Contains details about the appointment such as patient, doctor, issue, date, time, and status.
@@ -12,8 +15,8 @@ public class Appointment {
     private String patientName; // Patient's full name
     private String doctorId;    // Doctor's unique identifier
     private String issue;       // The medical issue the patient is seeing the doctor for
-    private String date;        // The date of the appointment
-    private String timeSlot;    // The time slot of the appointment
+    private LocalDate date;     // The date of the appointment
+    private LocalTime timeSlot; // The start time of the appointment's slot
     private String status;      // Status of the appointment (e.g., scheduled, completed, canceled)
 
     /**
@@ -30,10 +33,10 @@ public class Appointment {
      * @param doctorId The unique identifier for the doctor.
      * @param issue The medical issue of the patient.
      * @param date The date of the appointment.
-     * @param timeSlot The time slot of the appointment.
+     * @param timeSlot The start time of the appointment's slot.
      * @param status The current status of the appointment.
      */
-    public Appointment(String id, String patientId, String patientName, String doctorId, String issue, String date, String timeSlot, String status) {
+    public Appointment(String id, String patientId, String patientName, String doctorId, String issue, LocalDate date, LocalTime timeSlot, String status) {
         this.id = id;
         this.patientId = patientId;
         this.patientName = patientName;
@@ -78,15 +81,21 @@ public class Appointment {
 
     /**
      * Gets the date of the appointment.
-     * @return String representing the date of the appointment.
+     * @return LocalDate representing the date of the appointment.
      */
-    public String getDate() { return date; }
+    public LocalDate getDate() { return date; }
 
     /**
      * Gets the time slot of the appointment.
-     * @return String representing the time slot.
+     * @return LocalTime representing the start of the time slot.
+     */
+    public LocalTime getTimeSlot() { return timeSlot; }
+
+    /**
+     * Gets the date and time packed into one sortable int.
+     * @return int The {@link SlotKey} of the appointment, or {@link SlotKey#NO_KEY} if the date or time is missing.
      */
-    public String getTimeSlot() { return timeSlot; }
+    public int getSlotKey() { return SlotKey.of(date, timeSlot); }
 
     /**
      * Gets the status of the appointment.
@@ -0,0 +1,119 @@
+package com.smartclinic.model;
+
+import java.time.LocalDate;
+
+/**
+ * Search criteria for appointments.
+ * All criteria that are set must match. Unset (null) criteria are ignored.
+ */
+public class AppointmentFilter {
+
+    private String text;        // Free text: patient name prefix, exact doctor ID, or a date / month / year
+    private String doctorId;    // Exact doctor ID
+    private String patientId;   // Exact patient ID
+    private String status;      // Exact status (e.g., Confirmed)
+    private LocalDate dateFrom; // Earliest date, inclusive
+    private LocalDate dateTo;   // Latest date, inclusive
+    private int limit;          // Maximum number of results, 0 for no limit
+
+    /**
+     * Creates an empty filter that matches every appointment.
+     */
+    public AppointmentFilter() {}
+
+    /**
+     * Creates a filter for a free-text search.
+     * @param text Matches a patient name prefix, a doctor ID, or a date (yyyy-MM-dd, yyyy-MM or yyyy).
+     */
+    public AppointmentFilter(String text) {
+        this.text = text;
+    }
+
+    // Getters
+
+    /**
+     * Gets the free-text query.
+     * @return String the text, or null if not set.
+     */
+    public String getText() { return text; }
+
+    /**
+     * Gets the doctor ID criterion.
+     * @return String the doctor ID, or null if not set.
+     */
+    public String getDoctorId() { return doctorId; }
+
+    /**
+     * Gets the patient ID criterion.
+     * @return String the patient ID, or null if not set.
+     */
+    public String getPatientId() { return patientId; }
+
+    /**
+     * Gets the status criterion.
+     * @return String the status, or null if not set.
+     */
+    public String getStatus() { return status; }
+
+    /**
+     * Gets the earliest date, inclusive.
+     * @return LocalDate the date, or null if not set.
+     */
+    public LocalDate getDateFrom() { return dateFrom; }
+
+    /**
+     * Gets the latest date, inclusive.
+     * @return LocalDate the date, or null if not set.
+     */
+    public LocalDate getDateTo() { return dateTo; }
+
+    /**
+     * Gets the maximum number of results.
+     * @return int the limit, or 0 for no limit.
+     */
+    public int getLimit() { return limit; }
+
+    // Setters
+
+    /**
+     * Sets the free-text query.
+     * @param text Matches a patient name prefix, a doctor ID, or a date (yyyy-MM-dd, yyyy-MM or yyyy).
+     */
+    public void setText(String text) { this.text = text; }
+
+    /**
+     * Sets the doctor ID criterion.
+     * @param doctorId The doctor ID.
+     */
+    public void setDoctorId(String doctorId) { this.doctorId = doctorId; }
+
+    /**
+     * Sets the patient ID criterion.
+     * @param patientId The patient ID.
+     */
+    public void setPatientId(String patientId) { this.patientId = patientId; }
+
+    /**
+     * Sets the status criterion.
+     * @param status The status.
+     */
+    public void setStatus(String status) { this.status = status; }
+
+    /**
+     * Sets the earliest date, inclusive.
+     * @param dateFrom The date.
+     */
+    public void setDateFrom(LocalDate dateFrom) { this.dateFrom = dateFrom; }
+
+    /**
+     * Sets the latest date, inclusive.
+     * @param dateTo The date.
+     */
+    public void setDateTo(LocalDate dateTo) { this.dateTo = dateTo; }
+
+    /**
+     * Sets the maximum number of results.
+     * @param limit The limit, or 0 for no limit.
+     */
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,182 @@
+package com.smartclinic.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Random-access, column-oriented list of appointments.
+ * Status values are shared through the canonical-value dictionary.
+ * Date and time are stored together as one int {@link SlotKey} column, so sorting by them compares ints.
+ */
+public final class AppointmentList extends ColumnarList<Appointment> {
+
+    private String[] ids = new String[0];
+    private String[] patientIds = new String[0];
+    private String[] patientNames = new String[0];
+    private String[] doctorIds = new String[0];
+    private String[] issues = new String[0];
+    private int[] slotKeys = new int[0];
+    private String[] statuses = new String[0];
+
+    /**
+     * Creates an empty list.
+     */
+    public AppointmentList() {}
+
+    /**
+     * Creates an empty list with room for the given number of rows.
+     * @param capacity The initial capacity.
+     */
+    public AppointmentList(int capacity) {
+        grow(capacity);
+    }
+
+    /**
+     * Builds the appointment stored in a row.
+     * @param index The row index.
+     * @return Appointment A new Appointment object with the row's values.
+     */
+    @Override
+    public Appointment get(int index) {
+        checkIndex(index);
+        return new Appointment(ids[index], patientIds[index], patientNames[index], doctorIds[index],
+                issues[index], getDate(index), getTimeSlot(index), statuses[index]);
+    }
+
+    /**
+     * Gets the ID of the appointment in a row.
+     * @param index The row index.
+     * @return String the ID.
+     */
+    public String getId(int index) { checkIndex(index); return ids[index]; }
+
+    /**
+     * Gets the patient ID of the appointment in a row.
+     * @param index The row index.
+     * @return String the patient ID.
+     */
+    public String getPatientId(int index) { checkIndex(index); return patientIds[index]; }
+
+    /**
+     * Gets the patient name of the appointment in a row.
+     * @param index The row index.
+     * @return String the patient name.
+     */
+    public String getPatientName(int index) { checkIndex(index); return patientNames[index]; }
+
+    /**
+     * Gets the doctor ID of the appointment in a row.
+     * @param index The row index.
+     * @return String the doctor ID.
+     */
+    public String getDoctorId(int index) { checkIndex(index); return doctorIds[index]; }
+
+    /**
+     * Gets the medical issue of the appointment in a row.
+     * @param index The row index.
+     * @return String the medical issue.
+     */
+    public String getIssue(int index) { checkIndex(index); return issues[index]; }
+
+    /**
+     * Gets the date of the appointment in a row.
+     * @param index The row index.
+     * @return LocalDate the date, or null if the row has no date or time.
+     */
+    public LocalDate getDate(int index) {
+        int key = getSlotKey(index);
+        return key == SlotKey.NO_KEY ? null : SlotKey.date(key);
+    }
+
+    /**
+     * Gets the time slot of the appointment in a row.
+     * @param index The row index.
+     * @return LocalTime the start of the time slot, or null if the row has no date or time.
+     */
+    public LocalTime getTimeSlot(int index) {
+        int key = getSlotKey(index);
+        return key == SlotKey.NO_KEY ? null : SlotKey.time(key);
+    }
+
+    /**
+     * Gets the packed date and time of the appointment in a row.
+     * @param index The row index.
+     * @return int the {@link SlotKey}.
+     */
+    public int getSlotKey(int index) { checkIndex(index); return slotKeys[index]; }
+
+    /**
+     * Gets the status of the appointment in a row.
+     * @param index The row index.
+     * @return String the status.
+     */
+    public String getStatus(int index) { checkIndex(index); return statuses[index]; }
+
+    /**
+     * Computes the order of rows by date and time slot, earliest first, by sorting the int key column.
+     * Rows with the same date and time keep their current order.
+     * @return int[] Row indices in sorted order.
+     */
+    public int[] orderBySlotKey() {
+        return sortedOrder(slotKeys);
+    }
+
+    /**
+     * Creates a new list holding the given rows of this list, in the given order.
+     * @param rows Row indices, e.g. from {@link #sortedOrder}.
+     * @return AppointmentList The selected rows.
+     */
+    public AppointmentList select(int[] rows) {
+        return select(rows, rows.length);
+    }
+
+    /**
+     * Creates a new list holding the first {@code count} of the given rows of this list.
+     * @param rows Row indices.
+     * @param count How many entries of {@code rows} to use.
+     * @return AppointmentList The selected rows.
+     */
+    public AppointmentList select(int[] rows, int count) {
+        AppointmentList out = new AppointmentList(count);
+        for (int k = 0; k < count; k++) {
+            int i = rows[k];
+            checkIndex(i);
+            out.ids[k] = ids[i];
+            out.patientIds[k] = patientIds[i];
+            out.patientNames[k] = patientNames[i];
+            out.doctorIds[k] = doctorIds[i];
+            out.issues[k] = issues[i];
+            out.slotKeys[k] = slotKeys[i];
+            out.statuses[k] = statuses[i];
+        }
+        out.size = count;
+        return out;
+    }
+
+    @Override
+    protected int capacity() {
+        return ids.length;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        ids = grow(ids, capacity);
+        patientIds = grow(patientIds, capacity);
+        patientNames = grow(patientNames, capacity);
+        doctorIds = grow(doctorIds, capacity);
+        issues = grow(issues, capacity);
+        slotKeys = grow(slotKeys, capacity);
+        statuses = grow(statuses, capacity);
+    }
+
+    @Override
+    protected void setRow(int index, Appointment a) {
+        ids[index] = a.getId();
+        patientIds[index] = a.getPatientId();
+        patientNames[index] = a.getPatientName();
+        doctorIds[index] = a.getDoctorId();
+        issues[index] = a.getIssue();
+        slotKeys[index] = a.getSlotKey();
+        statuses[index] = canonical(a.getStatus());
+    }
+}
@@ -0,0 +1,63 @@
+package com.smartclinic.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A free appointment slot: a doctor, a date and one of the doctor's time slots.
+ * Returned by the earliest-available-slot search.
+ */
+public class AvailableSlot {
+
+    private final String doctorId;   // The doctor's unique identifier
+    private final String doctorName; // The doctor's full name
+    private final LocalDate date;    // The date
+    private final LocalTime timeSlot; // The start of one of the doctor's time slots
+
+    /**
+     * Creates a free slot.
+     * @param doctorId The doctor's unique identifier.
+     * @param doctorName The doctor's name.
+     * @param date The date.
+     * @param timeSlot The start of the time slot (e.g., 09:00).
+     */
+    public AvailableSlot(String doctorId, String doctorName, LocalDate date, LocalTime timeSlot) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.date = date;
+        this.timeSlot = timeSlot;
+    }
+
+    /**
+     * Gets the doctor's unique identifier.
+     * @return String representing the doctor ID.
+     */
+    public String getDoctorId() { return doctorId; }
+
+    /**
+     * Gets the doctor's name.
+     * @return String representing the doctor's name.
+     */
+    public String getDoctorName() { return doctorName; }
+
+    /**
+     * Gets the date of the slot.
+     * @return LocalDate representing the date.
+     */
+    public LocalDate getDate() { return date; }
+
+    /**
+     * Gets the time of the slot.
+     * @return LocalTime representing the start of the time slot.
+     */
+    public LocalTime getTimeSlot() { return timeSlot; }
+
+    /**
+     * Returns a string representation of the slot.
+     * @return String A line such as "2025-03-04 09:00 - Dr. Rao (ID: D1)".
+     */
+    @Override
+    public String toString() {
+        return date + " " + timeSlot + " - " + doctorName + " (ID: " + doctorId + ")";
+    }
+}
@@ -0,0 +1,159 @@
+package com.smartclinic.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for random-access entity lists stored column by column.
+ * Each field lives in its own array, so scanning, binary-searching or sorting by one field touches only
+ * that column, and there is one array per field instead of one object per row.
+ * {@link #get(int)} builds a new entity from a row; use the column accessors of the subclass on hot paths.
+ *
+ * @param <T> The entity type.
+ */
+public abstract class ColumnarList<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * Compares two rows by their index.
+     */
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(int row1, int row2);
+    }
+
+    // Canonical instances of low-cardinality values such as gender, specialization and status
+    private static final Map<String, String> dictionary = new ConcurrentHashMap<>();
+
+    protected int size;
+
+    /**
+     * Gets the number of rows.
+     * @return int The row count.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends an entity as a new row.
+     * @param entity The entity to append.
+     * @return boolean Always true.
+     */
+    @Override
+    public boolean add(T entity) {
+        int capacity = capacity();
+        if (size == capacity) {
+            grow(Math.max(16, capacity + (capacity >> 1)));
+        }
+        setRow(size++, entity);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Replaces a row with the fields of an entity.
+     * @param index The row index.
+     * @param entity The new row contents.
+     * @return T The previous row as an entity.
+     */
+    @Override
+    public T set(int index, T entity) {
+        T previous = get(index);
+        setRow(index, entity);
+        return previous;
+    }
+
+    /**
+     * Computes the order of rows under a comparator without moving any data.
+     * Uses a stable merge sort over row indices, O(n log n).
+     * @param comparator Compares two rows by index.
+     * @return int[] Row indices in sorted order.
+     */
+    public int[] sortedOrder(RowComparator comparator) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        int[] buffer = new int[size];
+        mergeSort(order, buffer, 0, size, comparator);
+        return order;
+    }
+
+    /**
+     * Computes the order of rows by an int column, using a primitive sort instead of a comparator.
+     * Each row is packed with its key into one long, so ties keep row order.
+     * @param keys The column, with at least {@link #size()} entries.
+     * @return int[] Row indices in ascending key order.
+     */
+    protected int[] sortedOrder(int[] keys) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) packed[i] = ((long) keys[i] << 32) | i;
+        Arrays.sort(packed);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = (int) packed[i];
+        return order;
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, RowComparator c) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, c);
+        mergeSort(a, buffer, mid, to, c);
+        if (c.compare(a[mid - 1], a[mid]) <= 0) return; // already in order
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = c.compare(buffer[i], buffer[j]) <= 0 ? buffer[i++] : buffer[j++];
+        }
+        while (i < mid) a[k++] = buffer[i++];
+        while (j < to) a[k++] = buffer[j++];
+    }
+
+    /**
+     * Returns the canonical instance of a low-cardinality value, so equal values share one String.
+     * @param value The value.
+     * @return String The shared instance, or null for null.
+     */
+    protected static String canonical(String value) {
+        return value == null ? null : dictionary.computeIfAbsent(value, v -> v);
+    }
+
+    protected static String[] grow(String[] column, int capacity) {
+        return Arrays.copyOf(column, capacity);
+    }
+
+    protected static <E> E[] grow(E[] column, int capacity) {
+        return Arrays.copyOf(column, capacity);
+    }
+
+    protected static int[] grow(int[] column, int capacity) {
+        return Arrays.copyOf(column, capacity);
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Gets the allocated length of the column arrays.
+     * @return int The capacity.
+     */
+    protected abstract int capacity();
+
+    /**
+     * Reallocates every column array to a new length.
+     * @param capacity The new capacity.
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * Writes the fields of an entity into a row.
+     * @param index The row index, below the capacity.
+     * @param entity The entity.
+     */
+    protected abstract void setRow(int index, T entity);
+}
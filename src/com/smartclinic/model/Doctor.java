@@ -10,7 +10,7 @@ public class Doctor {
     private String id;            // Unique identifier for the doctor
     private String name;          // Doctor's full name
     private String specialization; // Doctor's medical specialization (e.g., Cardiologist, Dermatologist)
-    private String timeSlots;     // Available time slots for appointments, comma-separated (e.g., "09:00,10:00,11:00")
+    private WeeklySchedule schedule; // Available time slots for appointments, per day of the week
 
     /**
      * Constructor for creating a Doctor object with all attributes.
@@ -20,10 +20,21 @@ public class Doctor {
      * @param timeSlots A comma-separated string representing the available time slots (e.g., "09:00,10:00,11:00").
      */
     public Doctor(String id, String name, String specialization, String timeSlots) {
+        this(id, name, specialization, WeeklySchedule.parse(timeSlots));
+    }
+
+    /**
+     * Constructor for creating a Doctor object from an already parsed schedule, e.g. one read from the doctor_slots table.
+     * @param id The unique identifier for the doctor.
+     * @param name The name of the doctor.
+     * @param specialization The specialization of the doctor.
+     * @param schedule The doctor's time slots per day of the week.
+     */
+    public Doctor(String id, String name, String specialization, WeeklySchedule schedule) {
         setId(id);
         setName(name);
         setSpecialization(specialization);
-        setTimeSlots(timeSlots);
+        setSchedule(schedule);
     }
 
     // Getters
@@ -47,10 +58,16 @@ public class Doctor {
     public String getSpecialization() { return specialization; }
 
     /**
-     * Gets the available time slots for the doctor.
-     * @return A comma-separated string representing the time slots.
+     * Gets the available time slots for the doctor, in the text form of {@link WeeklySchedule}.
+     * @return A comma-separated string representing the time slots, with day prefixes if they differ by day.
      */
-    public String getTimeSlots() { return timeSlots; }
+    public String getTimeSlots() { return schedule.toString(); }
+
+    /**
+     * Gets the doctor's time slots per day of the week.
+     * @return WeeklySchedule The parsed schedule.
+     */
+    public WeeklySchedule getSchedule() { return schedule; }
 
     // Setters with validation
 
@@ -92,24 +109,24 @@ public class Doctor {
 
     /**
      * Sets the available time slots for the doctor.
-     * @param timeSlots A comma-separated string representing the time slots (e.g., "09:00,10:00,11:00").
-     * @throws IllegalArgumentException if the time slots string is null, empty, or contains invalid time formats.
+     * @param timeSlots A comma-separated string representing the time slots (e.g., "09:00,10:00,11:00"),
+     *                  optionally per day (e.g., "MON-FRI 09:00,10:00; SAT 10:00").
+     * @throws IllegalArgumentException if the time slots string is null, empty, or contains invalid days or time formats.
      */
     public void setTimeSlots(String timeSlots) {
-        if (timeSlots == null || timeSlots.trim().isEmpty()) {
-            throw new IllegalArgumentException("Time slots cannot be empty.");
-        }
+        this.schedule = WeeklySchedule.parse(timeSlots);
+    }
 
-        // Validate each time slot format (HH:mm)
-        String[] slots = timeSlots.split(",");
-        for (String slot : slots) {
-            if (!slot.trim().matches("^([01]?\\d|2[0-3]):[0-5]\\d$")) {
-                throw new IllegalArgumentException("Invalid time format in slots. Use HH:mm.");
-            }
+    /**
+     * Sets the doctor's time slots per day of the week.
+     * @param schedule The schedule.
+     * @throws IllegalArgumentException if the schedule is null.
+     */
+    public void setSchedule(WeeklySchedule schedule) {
+        if (schedule == null) {
+            throw new IllegalArgumentException("Time slots cannot be empty.");
         }
-
-        // Join valid slots and trim the string
-        this.timeSlots = String.join(",", slots).trim();
+        this.schedule = schedule;
     }
 
     /**
@@ -121,6 +138,6 @@ public class Doctor {
         return "Doctor ID: " + id +
                 ", Name: " + name +
                 ", Specialization: " + specialization +
-                ", Time Slots: " + timeSlots;
+                ", Time Slots: " + schedule;
     }
 }
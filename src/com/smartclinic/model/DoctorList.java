@@ -0,0 +1,122 @@
+package com.smartclinic.model;
+
+/**
+ * Random-access, column-oriented list of doctors.
+ * Specialization values are shared through the canonical-value dictionary.
+ */
+public final class DoctorList extends ColumnarList<Doctor> {
+
+    private String[] ids = new String[0];
+    private String[] names = new String[0];
+    private String[] specializations = new String[0];
+    private WeeklySchedule[] schedules = new WeeklySchedule[0];
+
+    /**
+     * Creates an empty list.
+     */
+    public DoctorList() {}
+
+    /**
+     * Creates an empty list with room for the given number of rows.
+     * @param capacity The initial capacity.
+     */
+    public DoctorList(int capacity) {
+        grow(capacity);
+    }
+
+    /**
+     * Builds the doctor stored in a row.
+     * @param index The row index.
+     * @return Doctor A new Doctor object with the row's values.
+     */
+    @Override
+    public Doctor get(int index) {
+        checkIndex(index);
+        return new Doctor(ids[index], names[index], specializations[index], schedules[index]);
+    }
+
+    /**
+     * Gets the ID of the doctor in a row.
+     * @param index The row index.
+     * @return String the ID.
+     */
+    public String getId(int index) { checkIndex(index); return ids[index]; }
+
+    /**
+     * Gets the name of the doctor in a row.
+     * @param index The row index.
+     * @return String the name.
+     */
+    public String getName(int index) { checkIndex(index); return names[index]; }
+
+    /**
+     * Gets the specialization of the doctor in a row.
+     * @param index The row index.
+     * @return String the specialization.
+     */
+    public String getSpecialization(int index) { checkIndex(index); return specializations[index]; }
+
+    /**
+     * Gets the comma-separated time slots of the doctor in a row.
+     * @param index The row index.
+     * @return String the comma-separated time slots.
+     */
+    public String getTimeSlots(int index) { checkIndex(index); return schedules[index].toString(); }
+
+    /**
+     * Gets the time slots per day of the week of the doctor in a row.
+     * @param index The row index.
+     * @return WeeklySchedule the schedule.
+     */
+    public WeeklySchedule getSchedule(int index) { checkIndex(index); return schedules[index]; }
+
+    /**
+     * Creates a new list holding the given rows of this list, in the given order.
+     * @param rows Row indices, e.g. from {@link #sortedOrder}.
+     * @return DoctorList The selected rows.
+     */
+    public DoctorList select(int[] rows) {
+        return select(rows, rows.length);
+    }
+
+    /**
+     * Creates a new list holding the first {@code count} of the given rows of this list.
+     * @param rows Row indices.
+     * @param count How many entries of {@code rows} to use.
+     * @return DoctorList The selected rows.
+     */
+    public DoctorList select(int[] rows, int count) {
+        DoctorList out = new DoctorList(count);
+        for (int k = 0; k < count; k++) {
+            int i = rows[k];
+            checkIndex(i);
+            out.ids[k] = ids[i];
+            out.names[k] = names[i];
+            out.specializations[k] = specializations[i];
+            out.schedules[k] = schedules[i];
+        }
+        out.size = count;
+        return out;
+    }
+
+    @Override
+    protected int capacity() {
+        return ids.length;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        ids = grow(ids, capacity);
+        names = grow(names, capacity);
+        specializations = grow(specializations, capacity);
+        schedules = grow(schedules, capacity);
+    }
+
+    @Override
+    protected void setRow(int index, Doctor d) {
+        ids[index] = d.getId();
+        names[index] = d.getName();
+        specializations[index] = canonical(d.getSpecialization());
+        schedules[index] = d.getSchedule();
+    }
+}
@@ -0,0 +1,137 @@
+package com.smartclinic.model;
+
+/**
+ * Random-access, column-oriented list of patients.
+ * Gender values are shared through the canonical-value dictionary.
+ */
+public final class PatientList extends ColumnarList<Patient> {
+
+    private String[] ids = new String[0];
+    private String[] names = new String[0];
+    private int[] ages = new int[0];
+    private String[] contacts = new String[0];
+    private String[] genders = new String[0];
+    private String[] issues = new String[0];
+
+    /**
+     * Creates an empty list.
+     */
+    public PatientList() {}
+
+    /**
+     * Creates an empty list with room for the given number of rows.
+     * @param capacity The initial capacity.
+     */
+    public PatientList(int capacity) {
+        grow(capacity);
+    }
+
+    /**
+     * Builds the patient stored in a row.
+     * @param index The row index.
+     * @return Patient A new Patient object with the row's values.
+     */
+    @Override
+    public Patient get(int index) {
+        checkIndex(index);
+        return new Patient(ids[index], names[index], ages[index], contacts[index], genders[index], issues[index]);
+    }
+
+    /**
+     * Gets the ID of the patient in a row.
+     * @param index The row index.
+     * @return String the ID.
+     */
+    public String getId(int index) { checkIndex(index); return ids[index]; }
+
+    /**
+     * Gets the name of the patient in a row.
+     * @param index The row index.
+     * @return String the name.
+     */
+    public String getName(int index) { checkIndex(index); return names[index]; }
+
+    /**
+     * Gets the age of the patient in a row.
+     * @param index The row index.
+     * @return int the age.
+     */
+    public int getAge(int index) { checkIndex(index); return ages[index]; }
+
+    /**
+     * Gets the contact number of the patient in a row.
+     * @param index The row index.
+     * @return String the contact number.
+     */
+    public String getContact(int index) { checkIndex(index); return contacts[index]; }
+
+    /**
+     * Gets the gender of the patient in a row.
+     * @param index The row index.
+     * @return String the gender.
+     */
+    public String getGender(int index) { checkIndex(index); return genders[index]; }
+
+    /**
+     * Gets the medical issue of the patient in a row.
+     * @param index The row index.
+     * @return String the medical issue.
+     */
+    public String getIssue(int index) { checkIndex(index); return issues[index]; }
+
+    /**
+     * Creates a new list holding the given rows of this list, in the given order.
+     * @param rows Row indices, e.g. from {@link #sortedOrder}.
+     * @return PatientList The selected rows.
+     */
+    public PatientList select(int[] rows) {
+        return select(rows, rows.length);
+    }
+
+    /**
+     * Creates a new list holding the first {@code count} of the given rows of this list.
+     * @param rows Row indices.
+     * @param count How many entries of {@code rows} to use.
+     * @return PatientList The selected rows.
+     */
+    public PatientList select(int[] rows, int count) {
+        PatientList out = new PatientList(count);
+        for (int k = 0; k < count; k++) {
+            int i = rows[k];
+            checkIndex(i);
+            out.ids[k] = ids[i];
+            out.names[k] = names[i];
+            out.ages[k] = ages[i];
+            out.contacts[k] = contacts[i];
+            out.genders[k] = genders[i];
+            out.issues[k] = issues[i];
+        }
+        out.size = count;
+        return out;
+    }
+
+    @Override
+    protected int capacity() {
+        return ids.length;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        ids = grow(ids, capacity);
+        names = grow(names, capacity);
+        ages = grow(ages, capacity);
+        contacts = grow(contacts, capacity);
+        genders = grow(genders, capacity);
+        issues = grow(issues, capacity);
+    }
+
+    @Override
+    protected void setRow(int index, Patient p) {
+        ids[index] = p.getId();
+        names[index] = p.getName();
+        ages[index] = p.getAge();
+        contacts[index] = p.getContact();
+        genders[index] = canonical(p.getGender());
+        issues[index] = p.getIssue();
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartclinic.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Packs an appointment's date and start time into one int, {@code epochDay * 1440 + minuteOfDay},
+ * so that ordering and range checks on date and time are plain int comparisons.
+ * Keys cover about 4000 years either side of 1970; {@link #NO_KEY} sorts before every real key.
+ */
+public final class SlotKey {
+
+    /**
+     * Number of minutes in a day, the multiplier of the epoch day.
+     */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Key of an appointment without a date or time.
+     */
+    public static final int NO_KEY = Integer.MIN_VALUE;
+
+    private SlotKey() {}
+
+    /**
+     * Packs a date and a time.
+     * @param date The date, or null.
+     * @param time The time, or null.
+     * @return int The key, or {@link #NO_KEY} if either value is null.
+     */
+    public static int of(LocalDate date, LocalTime time) {
+        if (date == null || time == null) return NO_KEY;
+        return of(date, time.getHour() * 60 + time.getMinute());
+    }
+
+    /**
+     * Packs a date and a minute of the day.
+     * @param date The date.
+     * @param minute Minutes since midnight, 0 to 1439.
+     * @return int The key.
+     * @throws ArithmeticException If the date is outside the range of keys.
+     */
+    public static int of(LocalDate date, int minute) {
+        return Math.toIntExact(date.toEpochDay() * MINUTES_PER_DAY + minute);
+    }
+
+    /**
+     * Gets the date of a key.
+     * @param key A key other than {@link #NO_KEY}.
+     * @return LocalDate The date.
+     */
+    public static LocalDate date(int key) {
+        return LocalDate.ofEpochDay(Math.floorDiv(key, MINUTES_PER_DAY));
+    }
+
+    /**
+     * Gets the time of a key.
+     * @param key A key other than {@link #NO_KEY}.
+     * @return LocalTime The time.
+     */
+    public static LocalTime time(int key) {
+        int minute = Math.floorMod(key, MINUTES_PER_DAY);
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+}
@@ -0,0 +1,330 @@
+package com.smartclinic.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A doctor's appointment slots for each day of the week, as sorted minute-of-day arrays.
+ * Checking or listing slots is a binary search or an index lookup over a primitive array,
+ * with no string splitting or allocation.
+ *
+ * <p>The text form is the comma-separated list used so far ({@code "09:00,10:00"}, the same slots every day),
+ * optionally prefixed by days: {@code "MON-FRI 09:00,10:00; SAT 10:00"}. Days not listed have no slots.</p>
+ */
+public final class WeeklySchedule {
+
+    private static final short[] NO_SLOTS = new short[0];
+    private static final String[] DAY_NAMES = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
+
+    // Slot start times per day, Monday first; each array sorted and without duplicates
+    private final short[][] minutes;
+    // Text form, built on first use
+    private String text;
+
+    private WeeklySchedule(short[][] minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * Parses the text form of a schedule.
+     * @param text Comma-separated HH:mm slots, optionally in day groups such as "MON-FRI 09:00,10:00; SAT 10:00".
+     * @return WeeklySchedule The parsed schedule.
+     * @throws IllegalArgumentException If the text is empty or a day or time is invalid.
+     */
+    public static WeeklySchedule parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Time slots cannot be empty.");
+        }
+        Builder builder = new Builder();
+        for (String group : text.split(";")) {
+            String part = group.trim();
+            if (part.isEmpty()) continue;
+
+            int first = 0, last = 6;
+            int space = part.indexOf(' ');
+            if (space > 0 && Character.isLetter(part.charAt(0))) {
+                String days = part.substring(0, space).toUpperCase(Locale.ROOT);
+                int dash = days.indexOf('-');
+                first = dayIndex(dash < 0 ? days : days.substring(0, dash));
+                last = dash < 0 ? first : dayIndex(days.substring(dash + 1));
+                if (last < first) throw new IllegalArgumentException("Invalid day range: " + days);
+                part = part.substring(space + 1);
+            }
+            for (String slot : part.split(",")) {
+                int minute = minuteOf(slot.trim());
+                if (minute < 0) throw new IllegalArgumentException("Invalid time format in slots. Use HH:mm.");
+                for (int day = first; day <= last; day++) {
+                    builder.add(day, minute);
+                }
+            }
+        }
+        WeeklySchedule schedule = builder.build();
+        if (schedule.isEmpty()) throw new IllegalArgumentException("Time slots cannot be empty.");
+        return schedule;
+    }
+
+    /**
+     * Checks whether a text is a valid schedule.
+     * @param text The text form of a schedule.
+     * @return boolean True if {@link #parse(String)} accepts it.
+     */
+    public static boolean isValid(String text) {
+        try {
+            parse(text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a time such as "9:00" or "09:00" to minutes since midnight, without allocating.
+     * @param time The time, H:mm or HH:mm.
+     * @return int The minute of the day, or -1 if the text is not a valid time.
+     */
+    public static int minuteOf(CharSequence time) {
+        if (time == null) return -1;
+        int start = 0, end = time.length();
+        while (start < end && Character.isWhitespace(time.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(time.charAt(end - 1))) end--;
+
+        int length = end - start;
+        if (length != 4 && length != 5) return -1;
+        int colon = end - 3;
+        if (time.charAt(colon) != ':') return -1;
+        int hours = 0;
+        for (int i = start; i < colon; i++) {
+            char c = time.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            hours = hours * 10 + (c - '0');
+        }
+        char m1 = time.charAt(colon + 1), m2 = time.charAt(colon + 2);
+        if (m1 < '0' || m1 > '5' || m2 < '0' || m2 > '9') return -1;
+        if (hours > 23) return -1;
+        return hours * 60 + (m1 - '0') * 10 + (m2 - '0');
+    }
+
+    /**
+     * Parses a time such as "9:00" or "09:00".
+     * @param time The time, H:mm or HH:mm.
+     * @return LocalTime The time.
+     * @throws IllegalArgumentException If the text is not a valid time.
+     */
+    public static LocalTime parseTime(String time) {
+        int minute = minuteOf(time);
+        if (minute < 0) throw new IllegalArgumentException("Invalid time format. Use HH:mm.");
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    /**
+     * Formats a minute of the day as HH:mm.
+     * @param minute Minutes since midnight.
+     * @return String The time, e.g. "09:00".
+     */
+    public static String format(int minute) {
+        int h = minute / 60, m = minute % 60;
+        return new String(new char[]{(char) ('0' + h / 10), (char) ('0' + h % 10), ':', (char) ('0' + m / 10), (char) ('0' + m % 10)});
+    }
+
+    /**
+     * Checks whether a slot is offered on a day of the week.
+     * @param day The day of the week.
+     * @param minute The slot's start, in minutes since midnight.
+     * @return boolean True if the doctor has this slot on that day.
+     */
+    public boolean offers(DayOfWeek day, int minute) {
+        return indexOf(day, minute) >= 0;
+    }
+
+    /**
+     * Checks whether a slot is offered on a date.
+     * @param date The date.
+     * @param timeSlot The slot's start time.
+     * @return boolean True if the doctor has this slot on that date's day of the week.
+     */
+    public boolean offers(LocalDate date, LocalTime timeSlot) {
+        return timeSlot.getSecond() == 0 && offers(date.getDayOfWeek(), timeSlot.getHour() * 60 + timeSlot.getMinute());
+    }
+
+    /**
+     * Checks whether a slot is offered on any day of the week.
+     * @param timeSlot The slot, e.g. "09:00".
+     * @return boolean True if the doctor has this slot on at least one day.
+     */
+    public boolean offersOnAnyDay(String timeSlot) {
+        int minute = minuteOf(timeSlot);
+        if (minute < 0) return false;
+        for (short[] day : minutes) {
+            if (Arrays.binarySearch(day, (short) minute) >= 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the position of a slot among a day's slots.
+     * @param day The day of the week.
+     * @param minute The slot's start, in minutes since midnight.
+     * @return int The slot's index for {@link #slotAt}, or a negative value if it is not offered.
+     */
+    public int indexOf(DayOfWeek day, int minute) {
+        if (minute < 0) return -1;
+        return Arrays.binarySearch(minutes[day.ordinal()], (short) minute);
+    }
+
+    /**
+     * Gets the number of slots on a day of the week.
+     * @param day The day of the week.
+     * @return int The number of slots.
+     */
+    public int slotCount(DayOfWeek day) {
+        return minutes[day.ordinal()].length;
+    }
+
+    /**
+     * Gets one of a day's slots, in time order.
+     * @param day The day of the week.
+     * @param index The slot's index, from 0 to {@link #slotCount} - 1.
+     * @return int The slot's start, in minutes since midnight.
+     */
+    public int slotAt(DayOfWeek day, int index) {
+        return minutes[day.ordinal()][index];
+    }
+
+    /**
+     * Checks whether the schedule has no slots at all.
+     * @return boolean True if no day has a slot.
+     */
+    public boolean isEmpty() {
+        for (short[] day : minutes) {
+            if (day.length > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Lists the slots of one day.
+     * @param day The day of the week.
+     * @return String The slots as comma-separated HH:mm times.
+     */
+    public String slotsOn(DayOfWeek day) {
+        return join(minutes[day.ordinal()]);
+    }
+
+    /**
+     * Returns the text form: a plain slot list if every day has the same slots, otherwise day groups.
+     * @return String The schedule, e.g. "09:00,10:00" or "MON-FRI 09:00,10:00; SAT 10:00".
+     */
+    @Override
+    public String toString() {
+        String s = text;
+        if (s == null) {
+            s = buildText();
+            text = s;
+        }
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WeeklySchedule && Arrays.deepEquals(minutes, ((WeeklySchedule) o).minutes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(minutes);
+    }
+
+    private String buildText() {
+        boolean uniform = true;
+        for (int d = 1; d < 7 && uniform; d++) {
+            uniform = Arrays.equals(minutes[0], minutes[d]);
+        }
+        if (uniform) return join(minutes[0]);
+
+        // Group consecutive days with the same slots
+        StringBuilder sb = new StringBuilder();
+        for (int d = 0; d < 7; ) {
+            int end = d;
+            while (end + 1 < 7 && Arrays.equals(minutes[d], minutes[end + 1])) end++;
+            if (minutes[d].length > 0) {
+                if (sb.length() > 0) sb.append("; ");
+                sb.append(DAY_NAMES[d]);
+                if (end > d) sb.append('-').append(DAY_NAMES[end]);
+                sb.append(' ').append(join(minutes[d]));
+            }
+            d = end + 1;
+        }
+        return sb.toString();
+    }
+
+    private static String join(short[] slots) {
+        StringBuilder sb = new StringBuilder(slots.length * 6);
+        for (int i = 0; i < slots.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(format(slots[i]));
+        }
+        return sb.toString();
+    }
+
+    private static int dayIndex(String name) {
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            if (DAY_NAMES[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Invalid day: " + name + ". Use MON, TUE, WED, THU, FRI, SAT or SUN.");
+    }
+
+    /**
+     * Collects slots, e.g. from the rows of the doctor_slots table, into a schedule.
+     */
+    public static final class Builder {
+        private final int[][] days = new int[7][];
+        private final int[] counts = new int[7];
+
+        /**
+         * Adds a slot.
+         * @param day The day of the week.
+         * @param minute The slot's start, in minutes since midnight.
+         * @return Builder This builder.
+         */
+        public Builder add(DayOfWeek day, int minute) {
+            add(day.ordinal(), minute);
+            return this;
+        }
+
+        private void add(int day, int minute) {
+            if (minute < 0 || minute >= 24 * 60) throw new IllegalArgumentException("Invalid slot minute: " + minute);
+            if (days[day] == null) days[day] = new int[8];
+            if (counts[day] == days[day].length) days[day] = Arrays.copyOf(days[day], counts[day] * 2);
+            days[day][counts[day]++] = minute;
+        }
+
+        /**
+         * Builds the schedule. Slots are sorted and duplicates dropped; days with the same slots share one array.
+         * @return WeeklySchedule The schedule.
+         */
+        public WeeklySchedule build() {
+            short[][] minutes = new short[7][];
+            for (int d = 0; d < 7; d++) {
+                int[] raw = days[d] == null ? new int[0] : Arrays.copyOf(days[d], counts[d]);
+                Arrays.sort(raw);
+                short[] slots = new short[raw.length];
+                int n = 0;
+                for (int i = 0; i < raw.length; i++) {
+                    if (i == 0 || raw[i] != raw[i - 1]) slots[n++] = (short) raw[i];
+                }
+                slots = n == 0 ? NO_SLOTS : Arrays.copyOf(slots, n);
+                for (int prev = 0; prev < d; prev++) {
+                    if (Arrays.equals(minutes[prev], slots)) {
+                        slots = minutes[prev];
+                        break;
+                    }
+                }
+                minutes[d] = slots;
+            }
+            return new WeeklySchedule(minutes);
+        }
+    }
+}
@@ -2,12 +2,24 @@ package com.smartclinic.service;
 
 import com.smartclinic.dao.AppointmentDAO;
 import com.smartclinic.dao.DoctorDAO;
+import com.smartclinic.dao.ImportResult;
+import com.smartclinic.dao.UnitOfWork;
 import com.smartclinic.model.Appointment;
+import com.smartclinic.model.AppointmentFilter;
+import com.smartclinic.model.AppointmentList;
+import com.smartclinic.model.AvailableSlot;
 import com.smartclinic.model.Doctor;
+import com.smartclinic.util.Metrics;
 import com.smartclinic.util.SpecializationMapper;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Service class that handles operations related to appointments.
@@ -18,14 +30,32 @@ public class AppointmentService {
     private final AppointmentDAO appointmentDAO = new AppointmentDAO();  // Data Access Object for appointments
     private final DoctorDAO doctorDAO = new DoctorDAO();  // Data Access Object for doctors
 
+    // Latency of the in-memory sorts and searches, including their DAO reads; reported by Metrics
+    private static final Metrics.Timer SUGGEST_DOCTORS_BY_ISSUE = Metrics.timer("AppointmentService.suggestDoctorsByIssue");
+    private static final Metrics.Timer SEARCH_BY_PATIENT_NAME = Metrics.timer("AppointmentService.searchByPatientName");
+    private static final Metrics.Timer GET_SORTED_APPOINTMENTS = Metrics.timer("AppointmentService.getSortedAppointments");
+
+    // Days searched for free slots, overridable with -Dsmartclinic.slotFinder.horizonDays
+    private static final int SLOT_SEARCH_HORIZON_DAYS = Integer.getInteger("smartclinic.slotFinder.horizonDays", 90);
+
     /**
      * Books an appointment based on the patient's medical issue.
+     * If the appointment has no doctor, the least-loaded doctor of the matching specialization with the slot free is assigned.
+     * The doctor lookup, the availability check and the insert run as one unit of work:
+     * one borrowed connection and a single commit. A missing ID is allocated before the unit of work starts.
      * @param issue The medical issue for which the appointment is to be booked.
-     * @param appt The Appointment object containing appointment details.
+     * @param appt The Appointment object containing appointment details; a null doctor ID requests automatic assignment,
+     *             and a null ID is replaced by a newly allocated one.
      * @return true if the appointment was successfully booked, false otherwise.
      */
     public boolean bookAppointment(String issue, Appointment appt) {
-        return appointmentDAO.bookAppointment(issue, appt);
+        try {
+            appointmentDAO.assignId(appt);
+            return UnitOfWork.run(() -> appointmentDAO.bookAppointment(issue, appt));
+        } catch (SQLException e) {
+            System.out.println("[✗] Error booking appointment: " + e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -54,6 +84,38 @@ public class AppointmentService {
         return appointmentDAO.getAllAppointments();
     }
 
+    /**
+     * Retrieves one page of appointments ordered by date, time slot and ID.
+     * @param after The last appointment of the previous page, or null for the first page.
+     * @param pageSize The maximum number of appointments to return.
+     * @return The page of appointments.
+     */
+    public List<Appointment> getAppointmentsPage(Appointment after, int pageSize) {
+        return appointmentDAO.getAppointmentsPage(after, pageSize);
+    }
+
+    /**
+     * Streams all appointments ordered by date, time slot and ID. The stream must be closed.
+     * @param fetchSize Number of rows fetched from the database per round-trip.
+     * @return A lazily populated stream of appointments.
+     */
+    public Stream<Appointment> streamAppointments(int fetchSize) {
+        return appointmentDAO.streamAppointments(fetchSize);
+    }
+
+    /**
+     * Bulk-imports appointments from CSV (id, patient_id, doctor_id, date, time_slot, issue, status).
+     * @param csv The CSV input.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importAppointments(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        return appointmentDAO.importAppointments(csv, hasHeader, chunkSize);
+    }
+
     /**
      * Suggests a list of doctors based on the patient's medical issue.
      * Uses the SpecializationMapper to map the issue to a doctor specialization.
@@ -61,12 +123,31 @@ public class AppointmentService {
      * @return A list of doctors that specialize in the given issue.
      */
     public List<Doctor> suggestDoctorsByIssue(String issue) {
-        String specialization = SpecializationMapper.getSpecialization(issue);
-        if (specialization == null) return List.of(); // Return an empty list if no specialization is found
+        long start = SUGGEST_DOCTORS_BY_ISSUE.start();
+        try {
+            String specialization = SpecializationMapper.getSpecialization(issue);
+            if (specialization == null) return List.of(); // Return an empty list if no specialization is found
+
+            return doctorDAO.getDoctorsBySpecialization(specialization);
+        } finally {
+            SUGGEST_DOCTORS_BY_ISSUE.stop(start);
+        }
+    }
 
-        return doctorDAO.getAllDoctors().stream()
-                .filter(doc -> specialization.equalsIgnoreCase(doc.getSpecialization()))
-                .collect(Collectors.toList());
+    /**
+     * Finds the earliest free slots across all doctors of a specialization, so staff do not have to try dates by hand.
+     * Searches up to {@code smartclinic.slotFinder.horizonDays} days (90 by default) from the start date.
+     * @param issueOrSpecialization A specialization such as "Cardiologist", or a medical issue that maps to one.
+     * @param fromDate The first date to search.
+     * @param count The maximum number of slots to return.
+     * @return A list of up to {@code count} free (doctor, date, time slot) entries, earliest first.
+     */
+    public List<AvailableSlot> findNextAvailableSlots(String issueOrSpecialization, LocalDate fromDate, int count) {
+        List<Doctor> doctors = doctorDAO.getDoctorsBySpecialization(issueOrSpecialization);
+        if (doctors.isEmpty()) {
+            doctors = suggestDoctorsByIssue(issueOrSpecialization);
+        }
+        return appointmentDAO.findEarliestFreeSlots(doctors, fromDate, SLOT_SEARCH_HORIZON_DAYS, count);
     }
 
     /**
@@ -75,21 +156,19 @@ public class AppointmentService {
      * @return A list of doctors who match the given specialization.
      */
     public List<Doctor> getDoctorsBySpecialization(String specialization) {
-        return doctorDAO.getAllDoctors().stream()
-                .filter(d -> d.getSpecialization().equalsIgnoreCase(specialization))
-                .collect(Collectors.toList());
+        return doctorDAO.getDoctorsBySpecialization(specialization);
     }
 
     /**
      * Checks if a doctor is available for a specific time slot on a specific date.
+     * Uses the slot occupancy index instead of loading the doctor's appointments.
      * @param doctorId The ID of the doctor to check.
      * @param date The date to check availability.
      * @param timeSlot The time slot to check availability.
      * @return true if the doctor is available, false otherwise.
      */
-    public boolean isDoctorAvailable(String doctorId, String date, String timeSlot) {
-        List<Appointment> appointments = getAppointmentsByDoctorId(doctorId);
-        return appointments.stream().noneMatch(a -> a.getDate().equals(date) && a.getTimeSlot().equals(timeSlot));
+    public boolean isDoctorAvailable(String doctorId, LocalDate date, LocalTime timeSlot) {
+        return appointmentDAO.isSlotAvailable(doctorId, date, timeSlot);
     }
 
     /**
@@ -98,75 +177,79 @@ public class AppointmentService {
      * @return A list of appointments for the specified doctor.
      */
     public List<Appointment> getAppointmentsByDoctorId(String doctorId) {
-        return appointmentDAO.getAllAppointments().stream()
-                .filter(a -> a.getDoctorId().equals(doctorId))
-                .collect(Collectors.toList());
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setDoctorId(doctorId);
+        return appointmentDAO.searchAppointments(filter);
     }
 
     /**
      * Checks if a time slot is valid for a specific doctor based on their available time slots.
      * @param doctor The Doctor object containing the available time slots.
      * @param timeSlot The time slot to check for validity.
-     * @return true if the time slot is valid, false otherwise.
+     * @return true if the doctor offers the time slot on at least one day of the week, false otherwise.
      */
     public boolean isTimeSlotValid(Doctor doctor, String timeSlot) {
-        List<String> slots = Arrays.asList(doctor.getTimeSlots().split(","));
-        return slots.contains(timeSlot);
+        return doctor.getSchedule().offersOnAnyDay(timeSlot);
+    }
+
+    /**
+     * Checks if a time slot is valid for a specific doctor on a given date, based on the slots of that day of the week.
+     * @param doctor The Doctor object containing the available time slots.
+     * @param date The date of the appointment.
+     * @param timeSlot The start of the time slot to check for validity.
+     * @return true if the doctor offers the time slot on that date, false otherwise.
+     */
+    public boolean isTimeSlotValid(Doctor doctor, LocalDate date, LocalTime timeSlot) {
+        return doctor.getSchedule().offers(date, timeSlot);
     }
 
     /**
-     * Searches for an appointment based on the patient's name using binary search.
+     * Searches for an appointment based on the patient's name.
+     * The lookup runs in the database on the patient-name index instead of loading and sorting every appointment.
      * @param name The patient's name to search for.
-     * @return The Appointment object if found, null otherwise.
+     * @return The patient's earliest appointment if found, null otherwise.
      */
     public Appointment searchByPatientName(String name) {
-        List<Appointment> list = new LinkedList<>(getAllAppointments());
-        list.sort(Comparator.comparing(Appointment::getPatientName, String.CASE_INSENSITIVE_ORDER));
-        return binarySearchByPatientName(list, name.toLowerCase().trim());
-    }
-
-    /**
-     * Performs a binary search on a sorted list of appointments based on the patient's name.
-     * @param list The list of appointments to search through.
-     * @param target The target name to search for.
-     * @return The Appointment object if found, null otherwise.
-     */
-    private Appointment binarySearchByPatientName(List<Appointment> list, String target) {
-        int low = 0, high = list.size() - 1;
-        while (low <= high) {
-            int mid = (low + high) / 2;
-            String current = list.get(mid).getPatientName().toLowerCase();
-            int cmp = current.compareTo(target);
-            if (cmp == 0) return list.get(mid);
-            else if (cmp < 0) low = mid + 1;
-            else high = mid - 1;
+        long start = SEARCH_BY_PATIENT_NAME.start();
+        try {
+            return appointmentDAO.getAppointmentByPatientName(name.trim());
+        } finally {
+            SEARCH_BY_PATIENT_NAME.stop(start);
         }
-        return null;
     }
 
     /**
-     * Performs a linear search for appointments by any field (patient name, doctor ID, or date).
+     * Searches appointments by any field: patient name prefix, doctor ID, or date (yyyy-MM-dd, yyyy-MM or yyyy).
+     * The search runs as indexed SQL in the database.
      * @param query The query string to search for (case-insensitive).
      * @return A list of appointments matching the query.
      */
     public List<Appointment> searchAppointmentsByAnyField(String query) {
-        final String lowerQuery = query.toLowerCase().trim(); // Effectively final
-        return getAllAppointments().stream()
-                .filter(a -> a.getPatientName().toLowerCase().contains(lowerQuery)
-                        || a.getDoctorId().toLowerCase().contains(lowerQuery)
-                        || a.getDate().toLowerCase().contains(lowerQuery))
-                .collect(Collectors.toList());
+        return appointmentDAO.searchAppointments(new AppointmentFilter(query));
     }
 
     /**
-     * Sorts all appointments by date and time slot.
+     * Searches appointments by structured criteria such as doctor, status and date range.
+     * @param filter The search criteria.
+     * @return A list of matching appointments ordered by date and time slot.
+     */
+    public List<Appointment> searchAppointments(AppointmentFilter filter) {
+        return appointmentDAO.searchAppointments(filter);
+    }
+
+    /**
+     * Sorts all appointments by date and time slot, comparing the packed int date-and-time keys.
      * @return A sorted list of appointments.
      */
     public List<Appointment> getSortedAppointments() {
-        List<Appointment> sorted = new LinkedList<>(getAllAppointments());
-        sorted.sort(Comparator.comparing(Appointment::getDate)
-                .thenComparing(Appointment::getTimeSlot));
-        return sorted;
+        long start = GET_SORTED_APPOINTMENTS.start();
+        try {
+            AppointmentList list = appointmentDAO.getAllAppointments();
+            int[] order = list.orderBySlotKey();
+            return list.select(order);
+        } finally {
+            GET_SORTED_APPOINTMENTS.stop(start);
+        }
     }
 
     /**
@@ -195,4 +278,91 @@ public class AppointmentService {
         System.out.println("Returning to main menu...");
         // Logic to call menu should be handled in your Menu class
     }
+
+    // ----- Asynchronous variants, run on virtual threads by ServiceExecutor -----
+
+    /**
+     * Retrieves all appointments without blocking the caller.
+     * @return CompletableFuture<List<Appointment>> All appointments.
+     */
+    public CompletableFuture<List<Appointment>> getAllAppointmentsAsync() {
+        return ServiceExecutor.supply(() -> getAllAppointments());
+    }
+
+    /**
+     * Retrieves one page of appointments ordered by date, time slot and ID without blocking the caller.
+     * @param after The last appointment of the previous page, or null for the first page.
+     * @param pageSize The maximum number of appointments to return.
+     * @return CompletableFuture<List<Appointment>> The page of appointments.
+     */
+    public CompletableFuture<List<Appointment>> getAppointmentsPageAsync(Appointment after, int pageSize) {
+        return ServiceExecutor.supply(() -> getAppointmentsPage(after, pageSize));
+    }
+
+    /**
+     * Retrieves all appointments sorted by date and time slot without blocking the caller.
+     * @return CompletableFuture<List<Appointment>> The sorted appointments.
+     */
+    public CompletableFuture<List<Appointment>> getSortedAppointmentsAsync() {
+        return ServiceExecutor.supply(() -> getSortedAppointments());
+    }
+
+    /**
+     * Searches appointments by patient name prefix, doctor ID or date without blocking the caller.
+     * @param query The query string to search for.
+     * @return CompletableFuture<List<Appointment>> Matching appointments.
+     */
+    public CompletableFuture<List<Appointment>> searchAppointmentsByAnyFieldAsync(String query) {
+        return ServiceExecutor.supply(() -> searchAppointmentsByAnyField(query));
+    }
+
+    /**
+     * Suggests doctors for a medical issue without blocking the caller.
+     * @param issue The patient's medical issue.
+     * @return CompletableFuture<List<Doctor>> Doctors whose specialization matches the issue.
+     */
+    public CompletableFuture<List<Doctor>> suggestDoctorsByIssueAsync(String issue) {
+        return ServiceExecutor.supply(() -> suggestDoctorsByIssue(issue));
+    }
+
+    /**
+     * Finds the earliest free slots for a specialization or issue without blocking the caller.
+     * @param issueOrSpecialization A specialization, or a medical issue that maps to one.
+     * @param fromDate The first date to search.
+     * @param count The maximum number of slots to return.
+     * @return CompletableFuture<List<AvailableSlot>> Free slots, earliest first.
+     */
+    public CompletableFuture<List<AvailableSlot>> findNextAvailableSlotsAsync(String issueOrSpecialization, LocalDate fromDate, int count) {
+        return ServiceExecutor.supply(() -> findNextAvailableSlots(issueOrSpecialization, fromDate, count));
+    }
+
+    /**
+     * Checks whether a doctor's slot is free without blocking the caller.
+     * @param doctorId The doctor ID.
+     * @param date The date.
+     * @param timeSlot The start of the time slot.
+     * @return CompletableFuture<Boolean> True if the slot is free.
+     */
+    public CompletableFuture<Boolean> isDoctorAvailableAsync(String doctorId, LocalDate date, LocalTime timeSlot) {
+        return ServiceExecutor.supply(() -> isDoctorAvailable(doctorId, date, timeSlot));
+    }
+
+    /**
+     * Books an appointment without blocking the caller.
+     * @param issue The medical issue.
+     * @param appt The appointment to book.
+     * @return CompletableFuture<Boolean> True if the appointment was booked.
+     */
+    public CompletableFuture<Boolean> bookAppointmentAsync(String issue, Appointment appt) {
+        return ServiceExecutor.supply(() -> bookAppointment(issue, appt));
+    }
+
+    /**
+     * Cancels an appointment without blocking the caller.
+     * @param id The appointment ID.
+     * @return CompletableFuture<Boolean> True if the appointment was cancelled.
+     */
+    public CompletableFuture<Boolean> cancelAppointmentAsync(String id) {
+        return ServiceExecutor.supply(() -> cancelAppointment(id));
+    }
 }
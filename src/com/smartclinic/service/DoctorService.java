@@ -1,11 +1,17 @@
 package com.smartclinic.service;
 
 import com.smartclinic.dao.DoctorDAO;
+import com.smartclinic.dao.ImportResult;
 import com.smartclinic.model.Doctor;
+import com.smartclinic.model.DoctorList;
+import com.smartclinic.util.Metrics;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service class that handles operations related to doctors.
@@ -15,6 +21,10 @@ import java.util.List;
 public class DoctorService {
     private final DoctorDAO dao = new DoctorDAO(); // Data Access Object for doctor records
 
+    // Latency of the in-memory sorts and searches, including their DAO reads; reported by Metrics
+    private static final Metrics.Timer SEARCH_DOCTORS_BY_NAME = Metrics.timer("DoctorService.searchDoctorsByName");
+    private static final Metrics.Timer GET_DOCTORS_SORTED_BY_NAME = Metrics.timer("DoctorService.getDoctorsSortedByName");
+
     /**
      * Adds a new doctor to the system.
      * @param d The Doctor object containing doctor details to be added.
@@ -59,86 +69,139 @@ public class DoctorService {
         return dao.getAllDoctors();
     }
 
+    /**
+     * Bulk-imports doctors from CSV (id, name, specialization, time_slots).
+     * @param csv The CSV input.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importDoctors(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        return dao.importDoctors(csv, hasHeader, chunkSize);
+    }
+
+    /**
+     * Searches doctors by ID, name or specialization (case-insensitive substring), for search-as-you-type.
+     * Served from an in-memory n-gram index without querying the database.
+     * @param query The text typed by the user.
+     * @return A list of matching doctors, best matches first.
+     */
+    public List<Doctor> searchDoctors(String query) {
+        return dao.searchDoctors(query, 0);
+    }
+
     /**
      * Performs a linear search to find doctors by name (case-insensitive).
+     * Only the name column is scanned; Doctor objects are built for matches alone.
      * @param name The full or partial name of the doctor to search for.
      * @return A list of doctors whose names contain the given search string.
      */
     public List<Doctor> searchDoctorsByName(String name) {
-        LinkedList<Doctor> list = new LinkedList<>(getAllDoctors());
-        List<Doctor> matched = new ArrayList<>();
-        for (Doctor d : list) {
-            if (d.getName().toLowerCase().contains(name.toLowerCase())) {
-                matched.add(d);
+        long start = SEARCH_DOCTORS_BY_NAME.start();
+        try {
+            DoctorList list = dao.getAllDoctors();
+            String needle = name.toLowerCase();
+            int[] rows = new int[list.size()];
+            int count = 0;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.getName(i).toLowerCase().contains(needle)) {
+                    rows[count++] = i;
+                }
             }
+            return list.select(rows, count);
+        } finally {
+            SEARCH_DOCTORS_BY_NAME.stop(start);
         }
-        return matched;
     }
 
     /**
      * Returns a list of doctors sorted by name using Merge Sort.
+     * The sort moves row indices and compares the name column, so no Doctor objects are created while sorting.
      * @return A list of doctors sorted alphabetically by name.
      */
     public List<Doctor> getDoctorsSortedByName() {
-        List<Doctor> list = new ArrayList<>(getAllDoctors());
-        mergeSortByName(list, 0, list.size() - 1);
-        return list;
+        long start = GET_DOCTORS_SORTED_BY_NAME.start();
+        try {
+            DoctorList list = dao.getAllDoctors();
+            int[] order = list.sortedOrder((r1, r2) -> list.getName(r1).compareToIgnoreCase(list.getName(r2)));
+            return list.select(order);
+        } finally {
+            GET_DOCTORS_SORTED_BY_NAME.stop(start);
+        }
     }
 
     /**
-     * Helper method to perform merge sort on a list of doctors by name.
-     * @param list The list of doctors to be sorted.
-     * @param left The left index of the sublist.
-     * @param right The right index of the sublist.
+     * Searches for doctors by their specialization (case-insensitive).
+     * @param specialization The specialization to search for.
+     * @return A list of doctors who match the given specialization.
      */
-    private void mergeSortByName(List<Doctor> list, int left, int right) {
-        if (left < right) {
-            int mid = (left + right) / 2;
-            mergeSortByName(list, left, mid); // Sort left sublist
-            mergeSortByName(list, mid + 1, right); // Sort right sublist
-            merge(list, left, mid, right); // Merge the sorted sublists
-        }
+    public List<Doctor> searchDoctorsBySpecialization(String specialization) {
+        // Served from the doctor directory's specialization index instead of a table scan
+        return new ArrayList<>(dao.getDoctorsBySpecialization(specialization));
     }
 
+    // ----- Asynchronous variants, run on virtual threads by ServiceExecutor -----
+
     /**
-     * Helper method to merge two sorted sublists into a single sorted list.
-     * @param list The list to merge.
-     * @param left The left index of the sublist.
-     * @param mid The midpoint index of the sublist.
-     * @param right The right index of the sublist.
+     * Retrieves a doctor by ID without blocking the caller.
+     * @param id The doctor ID.
+     * @return CompletableFuture<Doctor> The doctor, or null if not found.
      */
-    private void merge(List<Doctor> list, int left, int mid, int right) {
-        List<Doctor> leftList = new ArrayList<>(list.subList(left, mid + 1));
-        List<Doctor> rightList = new ArrayList<>(list.subList(mid + 1, right + 1));
+    public CompletableFuture<Doctor> getDoctorAsync(String id) {
+        return ServiceExecutor.supply(() -> getDoctor(id));
+    }
 
-        int i = 0, j = 0, k = left;
-        while (i < leftList.size() && j < rightList.size()) {
-            // Compare names (case-insensitive) and add the smaller one
-            if (leftList.get(i).getName().compareToIgnoreCase(rightList.get(j).getName()) <= 0) {
-                list.set(k++, leftList.get(i++));
-            } else {
-                list.set(k++, rightList.get(j++));
-            }
-        }
-        // Add remaining elements from leftList or rightList
-        while (i < leftList.size()) list.set(k++, leftList.get(i++));
-        while (j < rightList.size()) list.set(k++, rightList.get(j++));
+    /**
+     * Retrieves all doctors without blocking the caller.
+     * @return CompletableFuture<List<Doctor>> All doctors.
+     */
+    public CompletableFuture<List<Doctor>> getAllDoctorsAsync() {
+        return ServiceExecutor.supply(() -> getAllDoctors());
     }
 
     /**
-     * Searches for doctors by their specialization (case-insensitive).
-     * @param specialization The specialization to search for.
-     * @return A list of doctors who match the given specialization.
+     * Retrieves the doctors sorted by name without blocking the caller.
+     * @return CompletableFuture<List<Doctor>> The sorted doctors.
      */
-    public List<Doctor> searchDoctorsBySpecialization(String specialization) {
-        LinkedList<Doctor> list = new LinkedList<>(getAllDoctors());
-        List<Doctor> result = new ArrayList<>();
-        for (Doctor d : list) {
-            // Check if the doctor's specialization matches the query
-            if (d.getSpecialization() != null && d.getSpecialization().equalsIgnoreCase(specialization)) {
-                result.add(d);
-            }
-        }
-        return result;
+    public CompletableFuture<List<Doctor>> getDoctorsSortedByNameAsync() {
+        return ServiceExecutor.supply(() -> getDoctorsSortedByName());
+    }
+
+    /**
+     * Searches doctors by ID, name or specialization without blocking the caller.
+     * @param query The text typed by the user.
+     * @return CompletableFuture<List<Doctor>> Matching doctors, best matches first.
+     */
+    public CompletableFuture<List<Doctor>> searchDoctorsAsync(String query) {
+        return ServiceExecutor.supply(() -> searchDoctors(query));
+    }
+
+    /**
+     * Adds a doctor without blocking the caller.
+     * @param d The doctor to add.
+     * @return CompletableFuture<Boolean> True if the doctor was added.
+     */
+    public CompletableFuture<Boolean> addDoctorAsync(Doctor d) {
+        return ServiceExecutor.supply(() -> addDoctor(d));
+    }
+
+    /**
+     * Updates a doctor without blocking the caller.
+     * @param d The doctor with updated details.
+     * @return CompletableFuture<Boolean> True if the doctor was updated.
+     */
+    public CompletableFuture<Boolean> updateDoctorAsync(Doctor d) {
+        return ServiceExecutor.supply(() -> updateDoctor(d));
+    }
+
+    /**
+     * Deletes a doctor without blocking the caller.
+     * @param id The doctor ID.
+     * @return CompletableFuture<Boolean> True if the doctor was deleted.
+     */
+    public CompletableFuture<Boolean> deleteDoctorAsync(String id) {
+        return ServiceExecutor.supply(() -> deleteDoctor(id));
     }
 }
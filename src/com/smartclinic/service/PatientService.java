@@ -1,12 +1,17 @@
 package com.smartclinic.service;
 
+import com.smartclinic.dao.ImportResult;
 import com.smartclinic.dao.PatientDAO;
 import com.smartclinic.model.Patient;
+import com.smartclinic.model.PatientList;
+import com.smartclinic.util.CollationSorter;
+import com.smartclinic.util.Metrics;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service class that manages operations related to patients.
@@ -16,6 +21,10 @@ import java.util.List;
 public class PatientService {
     private final PatientDAO dao = new PatientDAO(); // Data Access Object for patient records
 
+    // Latency of the in-memory sorts and searches, including their DAO reads; reported by Metrics
+    private static final Metrics.Timer GET_PATIENTS_SORTED_BY_NAME = Metrics.timer("PatientService.getPatientsSortedByName");
+    private static final Metrics.Timer SEARCH_PATIENTS_BY_ISSUE = Metrics.timer("PatientService.searchPatientsByIssue");
+
     /**
      * Adds a new patient to the system.
      * @param p The Patient object containing patient details to be added.
@@ -61,42 +70,137 @@ public class PatientService {
     }
 
     /**
-     * Returns a LinkedList of patients sorted by name using Bubble Sort.
-     * Bubble Sort is not the most efficient sorting algorithm, but it is simple to implement.
-     * @return A LinkedList of patients sorted alphabetically by name.
+     * Bulk-imports patients from CSV (id, name, age, contact, gender, issue).
+     * @param csv The CSV input.
+     * @param hasHeader Whether the first line is a header to skip.
+     * @param chunkSize Number of rows per batch and per commit.
+     * @return The number of imported rows and the rows that failed.
+     * @throws SQLException If the database connection fails.
+     * @throws IOException If the input cannot be read.
+     */
+    public ImportResult importPatients(Reader csv, boolean hasHeader, int chunkSize) throws SQLException, IOException {
+        return dao.importPatients(csv, hasHeader, chunkSize);
+    }
+
+    /**
+     * Returns the patients sorted by name using locale-aware collation (case-insensitive).
+     * Collation keys are computed once per patient and sorted in O(n log n) over an array-backed list.
+     * @return A list of patients sorted alphabetically by name.
      */
     public List<Patient> getPatientsSortedByName() {
-        LinkedList<Patient> patientsList = new LinkedList<>(getAllPatients());
-        int n = patientsList.size();
-        // Bubble sort algorithm for sorting patients by name
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = 0; j < n - i - 1; j++) {
-                Patient p1 = patientsList.get(j);
-                Patient p2 = patientsList.get(j + 1);
-                if (p1.getName().compareToIgnoreCase(p2.getName()) > 0) {
-                    // Swap patients if they are in the wrong order
-                    patientsList.set(j, p2);
-                    patientsList.set(j + 1, p1);
-                }
-            }
+        long start = GET_PATIENTS_SORTED_BY_NAME.start();
+        try {
+            PatientList list = dao.getAllPatients();
+            return list.select(CollationSorter.sortedOrder(list.size(), list::getName));
+        } finally {
+            GET_PATIENTS_SORTED_BY_NAME.stop(start);
         }
-        return patientsList;
+    }
+
+    /**
+     * Searches patients by ID, name or issue (case-insensitive substring), for search-as-you-type.
+     * Served from an in-memory n-gram index without querying the database.
+     * @param query The text typed by the user.
+     * @return A list of matching patients, best matches first.
+     */
+    public List<Patient> searchPatients(String query) {
+        return dao.searchPatients(query, 0);
     }
 
     /**
      * Searches for patients by their medical issue using linear search.
+     * Only the issue column is scanned; Patient objects are built for matches alone.
      * @param issue The issue to search for.
      * @return A list of patients who match the given issue.
      */
     public List<Patient> searchPatientsByIssue(String issue) {
-        LinkedList<Patient> patients = new LinkedList<>(getAllPatients());
-        List<Patient> result = new ArrayList<>();
-        for (Patient p : patients) {
-            // Case-insensitive comparison of patient issue
-            if (p.getIssue() != null && p.getIssue().equalsIgnoreCase(issue)) {
-                result.add(p);
+        long start = SEARCH_PATIENTS_BY_ISSUE.start();
+        try {
+            PatientList patients = dao.getAllPatients();
+            int[] rows = new int[patients.size()];
+            int count = 0;
+            for (int i = 0; i < patients.size(); i++) {
+                // Case-insensitive comparison of patient issue
+                String current = patients.getIssue(i);
+                if (current != null && current.equalsIgnoreCase(issue)) {
+                    rows[count++] = i;
+                }
             }
+            return patients.select(rows, count);
+        } finally {
+            SEARCH_PATIENTS_BY_ISSUE.stop(start);
         }
-        return result;
+    }
+
+    // ----- Asynchronous variants, run on virtual threads by ServiceExecutor -----
+
+    /**
+     * Retrieves a patient by ID without blocking the caller.
+     * @param id The patient ID.
+     * @return CompletableFuture<Patient> The patient, or null if not found.
+     */
+    public CompletableFuture<Patient> getPatientAsync(String id) {
+        return ServiceExecutor.supply(() -> getPatient(id));
+    }
+
+    /**
+     * Retrieves all patients without blocking the caller.
+     * @return CompletableFuture<List<Patient>> All patients.
+     */
+    public CompletableFuture<List<Patient>> getAllPatientsAsync() {
+        return ServiceExecutor.supply(() -> getAllPatients());
+    }
+
+    /**
+     * Retrieves the patients sorted by name without blocking the caller.
+     * @return CompletableFuture<List<Patient>> The sorted patients.
+     */
+    public CompletableFuture<List<Patient>> getPatientsSortedByNameAsync() {
+        return ServiceExecutor.supply(() -> getPatientsSortedByName());
+    }
+
+    /**
+     * Searches patients by ID, name or issue without blocking the caller.
+     * @param query The text typed by the user.
+     * @return CompletableFuture<List<Patient>> Matching patients, best matches first.
+     */
+    public CompletableFuture<List<Patient>> searchPatientsAsync(String query) {
+        return ServiceExecutor.supply(() -> searchPatients(query));
+    }
+
+    /**
+     * Searches patients by issue without blocking the caller.
+     * @param issue The issue to search for.
+     * @return CompletableFuture<List<Patient>> Patients with the given issue.
+     */
+    public CompletableFuture<List<Patient>> searchPatientsByIssueAsync(String issue) {
+        return ServiceExecutor.supply(() -> searchPatientsByIssue(issue));
+    }
+
+    /**
+     * Adds a patient without blocking the caller.
+     * @param p The patient to add.
+     * @return CompletableFuture<Boolean> True if the patient was added.
+     */
+    public CompletableFuture<Boolean> addPatientAsync(Patient p) {
+        return ServiceExecutor.supply(() -> addPatient(p));
+    }
+
+    /**
+     * Updates a patient without blocking the caller.
+     * @param p The patient with updated details.
+     * @return CompletableFuture<Boolean> True if the patient was updated.
+     */
+    public CompletableFuture<Boolean> updatePatientAsync(Patient p) {
+        return ServiceExecutor.supply(() -> updatePatient(p));
+    }
+
+    /**
+     * Deletes a patient without blocking the caller.
+     * @param id The patient ID.
+     * @return CompletableFuture<Boolean> True if the patient was deleted.
+     */
+    public CompletableFuture<Boolean> deletePatientAsync(String id) {
+        return ServiceExecutor.supply(() -> deletePatient(id));
     }
 }
@@ -0,0 +1,30 @@
+package com.smartclinic.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls in the background on virtual threads, for the asynchronous variants of the service methods.
+ * Each call gets its own virtual thread, so a caller such as the Swing Event Dispatch Thread never blocks on
+ * the database, and callers waiting on slow queries or on the connection pool cost no platform threads.
+ */
+public final class ServiceExecutor {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ServiceExecutor() {}
+
+    /**
+     * Runs a task on a new virtual thread.
+     * Cancelling the returned future discards the result but does not interrupt the task: interrupting a
+     * virtual thread blocked in socket I/O closes the socket, which would break the pooled JDBC connection.
+     * @param task The blocking call to run, e.g. a DAO query.
+     * @param <T> The result type.
+     * @return CompletableFuture<T> Completed with the task's result, or exceptionally if it throws.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+}
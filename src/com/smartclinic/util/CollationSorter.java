@@ -0,0 +1,102 @@
+package com.smartclinic.util;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Utility class for locale-aware sorting of records by a text field.
+ * Each record's text is converted to a {@link CollationKey} once, and the keys are then sorted
+ * with an O(n log n) array sort, so the expensive collation rules run n times instead of n log n times.
+ */
+public class CollationSorter {
+
+    /**
+     * Sorts records by a text field using the collation rules of the default locale.
+     * Comparison ignores case but not accents. The sort is stable.
+     *
+     * @param records The records to sort; not modified.
+     * @param field Extracts the text to sort by; null is sorted as an empty string.
+     * @param <T> The record type.
+     * @return A new random-access list with the records in sorted order.
+     */
+    public static <T> List<T> sortBy(Collection<T> records, Function<T, String> field) {
+        return sortBy(records, field, Locale.getDefault());
+    }
+
+    /**
+     * Sorts records by a text field using the collation rules of the given locale.
+     * Comparison ignores case but not accents. The sort is stable.
+     *
+     * @param records The records to sort; not modified.
+     * @param field Extracts the text to sort by; null is sorted as an empty string.
+     * @param locale The locale whose collation rules are used.
+     * @param <T> The record type.
+     * @return A new random-access list with the records in sorted order.
+     */
+    public static <T> List<T> sortBy(Collection<T> records, Function<T, String> field, Locale locale) {
+        Collator collator = Collator.getInstance(locale);
+        collator.setStrength(Collator.SECONDARY);
+
+        List<Keyed<T>> keyed = new ArrayList<>(records.size());
+        for (T record : records) {
+            String text = field.apply(record);
+            keyed.add(new Keyed<>(collator.getCollationKey(text == null ? "" : text), record));
+        }
+
+        // List.sort on an ArrayList is a stable O(n log n) TimSort over the backing array
+        keyed.sort(Comparator.comparing(k -> k.key));
+
+        List<T> sorted = new ArrayList<>(keyed.size());
+        for (Keyed<T> k : keyed) {
+            sorted.add(k.record);
+        }
+        return sorted;
+    }
+
+    /**
+     * Computes the collated order of indexed text values without moving any records,
+     * for column-oriented lists that expose one field as an indexed accessor.
+     * Uses the collation rules of the default locale; comparison ignores case but not accents. The sort is stable.
+     *
+     * @param count The number of values.
+     * @param field Gets the text at an index; null is sorted as an empty string.
+     * @return int[] The indices 0..count-1 in sorted order.
+     */
+    public static int[] sortedOrder(int count, IntFunction<String> field) {
+        Collator collator = Collator.getInstance(Locale.getDefault());
+        collator.setStrength(Collator.SECONDARY);
+
+        List<Keyed<Integer>> keyed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String text = field.apply(i);
+            keyed.add(new Keyed<>(collator.getCollationKey(text == null ? "" : text), i));
+        }
+        keyed.sort(Comparator.comparing(k -> k.key));
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = keyed.get(i).record;
+        }
+        return order;
+    }
+
+    /**
+     * A record paired with the precomputed collation key of its sort field.
+     */
+    private static final class Keyed<T> {
+        private final CollationKey key;
+        private final T record;
+
+        Keyed(CollationKey key, T record) {
+            this.key = key;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartclinic.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for splitting CSV lines into fields.
+ * Supports comma separators, double-quoted fields containing commas, and doubled quotes ("") inside quoted fields.
+ * A record must fit on one line.
+ */
+public class CsvParser {
+
+    /**
+     * Splits one CSV line into its fields. Unquoted fields are trimmed.
+     *
+     * @param line The CSV line.
+     * @return The fields of the line.
+     * @throws IllegalArgumentException if a quoted field is not closed.
+     */
+    public static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;     // inside a quoted section
+        boolean wasQuoted = false;  // current field used quotes, so keep its whitespace
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');  // escaped quote
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? current.toString() : current.toString().trim());
+                current.setLength(0);
+                wasQuoted = false;
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        fields.add(wasQuoted ? current.toString() : current.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+}
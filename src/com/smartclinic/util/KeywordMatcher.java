@@ -0,0 +1,191 @@
+package com.smartclinic.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Case-insensitive multi-keyword matcher based on the Aho-Corasick automaton.
+ * All keywords are compiled into one automaton, so a text is scanned once regardless of how many keywords there are.
+ * Instances are immutable after construction and safe to share between threads.
+ *
+ * @param <V> The type of value associated with each keyword.
+ */
+public class KeywordMatcher<V> {
+
+    /**
+     * A keyword occurrence in a scanned text.
+     *
+     * @param <V> The type of value associated with the keyword.
+     */
+    public static final class Match<V> {
+        private final String keyword;
+        private final int start;
+        private final V value;
+
+        Match(String keyword, int start, V value) {
+            this.keyword = keyword;
+            this.start = start;
+            this.value = value;
+        }
+
+        /**
+         * Gets the matched keyword (lower-case).
+         * @return The keyword.
+         */
+        public String getKeyword() { return keyword; }
+
+        /**
+         * Gets the index in the text where the keyword starts.
+         * @return The start index.
+         */
+        public int getStart() { return start; }
+
+        /**
+         * Gets the value associated with the keyword.
+         * @return The value.
+         */
+        public V getValue() { return value; }
+    }
+
+    /**
+     * A state of the automaton.
+     */
+    private static final class Node {
+        final Map<Character, Node> next = new HashMap<>();
+        Node fail;
+        int keyword = -1;      // keyword ending exactly at this node, or -1
+        Node outputLink;       // nearest node on the fail chain that ends a keyword
+    }
+
+    private final Node root = new Node();
+    private final List<String> keywords = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+
+    /**
+     * Builds a matcher for the given keywords.
+     * Keywords are matched case-insensitively; if the same keyword appears twice, the first value wins.
+     * @param keywordValues Map of keyword to associated value.
+     */
+    public KeywordMatcher(Map<String, V> keywordValues) {
+        for (Map.Entry<String, V> e : keywordValues.entrySet()) {
+            addKeyword(e.getKey().toLowerCase(Locale.ROOT), e.getValue());
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Inserts a keyword into the trie.
+     * @param keyword The lower-case keyword.
+     * @param value The associated value.
+     */
+    private void addKeyword(String keyword, V value) {
+        if (keyword.isEmpty()) return;
+        Node node = root;
+        for (int i = 0; i < keyword.length(); i++) {
+            node = node.next.computeIfAbsent(keyword.charAt(i), c -> new Node());
+        }
+        if (node.keyword < 0) {
+            node.keyword = keywords.size();
+            keywords.add(keyword);
+            values.add(value);
+        }
+    }
+
+    /**
+     * Computes failure and output links breadth-first, as in the standard Aho-Corasick construction.
+     */
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> e : node.next.entrySet()) {
+                char c = e.getKey();
+                Node child = e.getValue();
+                Node f = node.fail;
+                while (f != null && !f.next.containsKey(c)) {
+                    f = f.fail;
+                }
+                child.fail = (f == null) ? root : f.next.get(c);
+                child.outputLink = (child.fail.keyword >= 0) ? child.fail : child.fail.outputLink;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Finds every keyword occurrence in the text in a single pass.
+     * @param text The text to scan.
+     * @return List of matches in the order in which they end in the text.
+     */
+    public List<Match<V>> findAll(String text) {
+        List<Match<V>> matches = new ArrayList<>();
+        if (text == null) return matches;
+
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, Character.toLowerCase(text.charAt(i)));
+            for (Node out = node.keyword >= 0 ? node : node.outputLink; out != null; out = out.outputLink) {
+                String keyword = keywords.get(out.keyword);
+                matches.add(new Match<>(keyword, i - keyword.length() + 1, values.get(out.keyword)));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the best keyword occurrence in the text: the longest one, and among equally long ones the earliest.
+     * @param text The text to scan.
+     * @return The value of the best matching keyword, or null if no keyword occurs in the text.
+     */
+    public V findBest(String text) {
+        if (text == null) return null;
+
+        int bestKeyword = -1;
+        int bestLength = 0;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, Character.toLowerCase(text.charAt(i)));
+            // The node itself, or else its output link, is the longest keyword ending here
+            Node out = node.keyword >= 0 ? node : node.outputLink;
+            if (out != null) {
+                int length = keywords.get(out.keyword).length();
+                if (length > bestLength) {
+                    bestLength = length;
+                    bestKeyword = out.keyword;
+                }
+            }
+        }
+        return bestKeyword < 0 ? null : values.get(bestKeyword);
+    }
+
+    /**
+     * Follows the goto/failure transitions for one character.
+     * @param node The current state.
+     * @param c The next (lower-case) character.
+     * @return The next state.
+     */
+    private Node step(Node node, char c) {
+        while (node != root && !node.next.containsKey(c)) {
+            node = node.fail;
+        }
+        Node next = node.next.get(c);
+        return next == null ? root : next;
+    }
+
+    /**
+     * Gets the number of distinct keywords in the automaton.
+     * @return The keyword count.
+     */
+    public int size() {
+        return keywords.size();
+    }
+}
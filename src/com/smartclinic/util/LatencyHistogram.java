@@ -0,0 +1,135 @@
+package com.smartclinic.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * Every power of two is split into 32 equal buckets, so any recorded value is reported within about 3%
+ * while the whole range from 1 ns to over an hour fits in about 1,200 counters. Recording is a bucket
+ * calculation and an atomic increment, cheap enough to leave on in production.
+ */
+public final class LatencyHistogram {
+
+    // Each power of two above 2^SUB_BITS is split into 2^(SUB_BITS - 1) buckets
+    private static final int SUB_BITS = 6;
+    private static final int HALF = 1 << (SUB_BITS - 1);
+    // Values above 2^42 ns (about 73 minutes) are clamped into the last bucket
+    private static final int MAX_BIT = 42;
+    private static final long MAX_VALUE = (1L << MAX_BIT) - 1;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value.
+     * @param nanos The latency in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return long the count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of all recorded values.
+     * @return long the total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * Gets the largest recorded value.
+     * @return long the maximum in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     * @return double the mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotalNanos() / n;
+    }
+
+    /**
+     * Gets the value below which a given share of the recorded values fall.
+     * @param percentile The percentile, from 0 to 100.
+     * @return long the upper bound of the bucket holding the percentile, in nanoseconds; 0 if nothing was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values. Values recorded concurrently may be kept or dropped.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Maps a value to its bucket: values below 2^SUB_BITS have a bucket each, larger values share a bucket
+     * with the values that agree in their top SUB_BITS bits.
+     * @param value The value, between 0 and MAX_VALUE.
+     * @return int The bucket index.
+     */
+    private static int indexOf(long value) {
+        if (value < 2 * HALF) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the largest value that maps to a bucket.
+     * @param index The bucket index.
+     * @return long The bucket's upper bound.
+     */
+    private static long upperBound(int index) {
+        if (index < 2 * HALF) return index;
+        int shift = index / HALF - 1;
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,233 @@
+package com.smartclinic.util;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Application-wide call metrics: latency timers, counters and gauges, kept in memory by name.
+ * DAO and service methods hold their timers in static fields and time each call with
+ * {@code long start = TIMER.start(); try { ... } finally { TIMER.stop(start); }}.
+ *
+ * <p>The metrics are published over JMX as {@code com.smartclinic:type=Metrics} and, when
+ * {@code -Dsmartclinic.metrics.dumpSeconds} is set, printed to the console at that interval.</p>
+ */
+public final class Metrics {
+
+    // Console report interval, 0 disables it; overridable with -Dsmartclinic.metrics.dumpSeconds
+    private static final long DUMP_SECONDS = Long.getLong("smartclinic.metrics.dumpSeconds", 0L);
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        registerMBean();
+        if (DUMP_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "smartclinic-metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.out.print(report()), DUMP_SECONDS, DUMP_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * Times calls of one operation.
+     */
+    public static final class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer() {}
+
+        /**
+         * Starts timing a call.
+         * @return long The start time, to pass to {@link #stop(long)}.
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Records a call that started at the given time.
+         * @param start The value returned by {@link #start()}.
+         */
+        public void stop(long start) {
+            histogram.record(System.nanoTime() - start);
+        }
+
+        /**
+         * Records a call of a known duration.
+         * @param nanos The duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+
+        /**
+         * Gets the latency distribution of the recorded calls.
+         * @return LatencyHistogram The histogram.
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    /**
+     * Counts events, such as rows fetched. Increments from many threads do not contend.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {}
+
+        /**
+         * Adds one.
+         */
+        public void increment() {
+            value.increment();
+        }
+
+        /**
+         * Adds an amount.
+         * @param amount The amount to add.
+         */
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        /**
+         * Gets the current total.
+         * @return long The total.
+         */
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Gets or creates the timer with a given name.
+     * @param name The operation name, e.g. {@code PatientDAO.getPatientById}.
+     * @return Timer The timer.
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /**
+     * Gets or creates the counter with a given name.
+     * @param name The counter name, e.g. {@code AppointmentDAO.rowsFetched}.
+     * @return Counter The counter.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Registers a value that is read when the metrics are reported, such as the number of busy connections.
+     * @param name The gauge name.
+     * @param value Reads the current value.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * Builds a text report of all metrics, sorted by name. Latencies are in microseconds.
+     * @return String The report.
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("[ℹ] Metrics\n");
+        sb.append(String.format("  %-45s %10s %10s %10s %10s %10s %10s%n",
+                "timer", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()) {
+            LatencyHistogram h = e.getValue().histogram;
+            if (h.getCount() == 0) continue;
+            sb.append(String.format("  %-45s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", e.getKey(), h.getCount(),
+                    h.getMeanNanos() / 1000.0,
+                    h.getPercentileNanos(50) / 1000.0, h.getPercentileNanos(90) / 1000.0,
+                    h.getPercentileNanos(99) / 1000.0, h.getMaxNanos() / 1000.0));
+        }
+        for (Map.Entry<String, Long> e : counterValues().entrySet()) {
+            sb.append(String.format("  %-45s %10d%n", e.getKey(), e.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads all counters and gauges.
+     * @return Map<String, Long> Values by name, sorted.
+     */
+    private static Map<String, Long> counterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.get()));
+        GAUGES.forEach((name, gauge) -> {
+            try {
+                values.put(name, gauge.getAsLong());
+            } catch (RuntimeException e) {
+                values.put(name, -1L);
+            }
+        });
+        return values;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server.
+     */
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new MBean(), new ObjectName("com.smartclinic:type=Metrics"));
+        } catch (Exception e) {
+            System.out.println("[!] Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The JMX view of the metrics.
+     */
+    private static final class MBean implements MetricsMXBean {
+        @Override
+        public String getReport() {
+            return report();
+        }
+
+        @Override
+        public Map<String, Long> getCallCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            TIMERS.forEach((name, timer) -> counts.put(name, timer.histogram.getCount()));
+            return counts;
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return counterValues();
+        }
+
+        @Override
+        public long getPercentileMicros(String timer, double percentile) {
+            Timer t = TIMERS.get(timer);
+            return t == null ? -1 : micros(t.histogram.getPercentileNanos(percentile));
+        }
+
+        @Override
+        public void reset() {
+            TIMERS.values().forEach(t -> t.histogram.reset());
+            COUNTERS.values().forEach(c -> c.value.reset());
+        }
+    }
+}
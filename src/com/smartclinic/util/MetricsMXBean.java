@@ -0,0 +1,40 @@
+package com.smartclinic.util;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link Metrics}, registered as {@code com.smartclinic:type=Metrics}.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Gets the text report of all timers, counters and gauges.
+     * @return String The report, one metric per line.
+     */
+    String getReport();
+
+    /**
+     * Gets the number of calls recorded by each timer.
+     * @return Map<String, Long> Call counts by timer name.
+     */
+    Map<String, Long> getCallCounts();
+
+    /**
+     * Gets the current value of each counter and gauge.
+     * @return Map<String, Long> Values by metric name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets a latency percentile of one timer.
+     * @param timer The timer name, e.g. {@code AppointmentDAO.isSlotAvailable}.
+     * @param percentile The percentile, from 0 to 100.
+     * @return long The latency in microseconds, or -1 if there is no such timer.
+     */
+    long getPercentileMicros(String timer, double percentile);
+
+    /**
+     * Clears all timers and counters. Gauges are not affected.
+     */
+    void reset();
+}
@@ -0,0 +1,300 @@
+package com.smartclinic.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory text index over a few fields per record, for search-as-you-type.
+ * The leading "substring" fields (e.g. ID and name) are indexed by their 3-character substrings (trigrams),
+ * so a query of three or more characters found anywhere in them intersects a few posting sets before
+ * verifying the candidates. Every word of every field is also kept in a sorted map, which answers queries
+ * of one or two characters and word-start matches in the remaining fields (e.g. free-text issues) with a
+ * range scan instead of indexing those fields gram by gram.
+ * Records are added, replaced and removed individually, so the index never has to be rebuilt.
+ * Matching is case-insensitive.
+ *
+ * @param <K> The record key type, e.g. an ID string.
+ */
+public class NGramIndex<K> {
+
+    private static final int GRAM = 3;
+
+    private final int fieldCount;
+    private final int substringFields;
+    // trigram of a substring field -> keys of the records containing it
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    // word of any field -> keys of the records containing it, sorted for prefix range scans
+    private final NavigableMap<String, Set<K>> words = new TreeMap<>();
+    // key -> lower-cased fields of the record
+    private final Map<K, String[]> records = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an empty index.
+     * @param fieldCount Number of fields per record. Earlier fields rank higher when a query matches equally well.
+     * @param substringFields Number of leading fields matched anywhere in the text; the others only match at word starts.
+     */
+    public NGramIndex(int fieldCount, int substringFields) {
+        if (substringFields < 0 || substringFields > fieldCount) {
+            throw new IllegalArgumentException("Expected 0 to " + fieldCount + " substring fields, got " + substringFields);
+        }
+        this.fieldCount = fieldCount;
+        this.substringFields = substringFields;
+    }
+
+    /**
+     * Adds a record or replaces the indexed fields of an existing record with the same key.
+     * @param key The record key.
+     * @param fields The record's text fields, in the order given to the constructor; null is indexed as empty.
+     */
+    public void put(K key, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields, got " + fields.length);
+        }
+        String[] normalized = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            String[] previous = records.put(key, normalized);
+            if (previous != null) {
+                unlink(key, previous);
+            }
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+            for (String word : wordsOf(normalized)) {
+                words.computeIfAbsent(word, w -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a record from the index.
+     * @param key The record key.
+     */
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = records.remove(key);
+            if (previous != null) {
+                unlink(key, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the records matching a query, best matches first.
+     * A field equal to the query ranks above one starting with it, then one with a word starting with it,
+     * then any other occurrence in a substring field (queries of three or more characters only); within the
+     * same kind of match, earlier fields rank higher. With a limit, collection stops once that many matches
+     * are found, word-start matches being collected before other occurrences, and only those are ranked.
+     * @param query The text to look for (case-insensitive).
+     * @param limit Maximum number of keys to return, or 0 for no limit.
+     * @return List<K> Keys of the matching records in rank order; empty for a blank query.
+     */
+    public List<K> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) return List.of();
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+
+        List<Ranked<K>> ranked = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<K> seen = new HashSet<>();
+            collectWordMatches(q, max, seen, ranked);
+            if (q.length() >= GRAM && ranked.size() < max) {
+                collectSubstringMatches(q, max, seen, ranked);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ranked.sort(Comparator.<Ranked<K>>comparingInt(r -> -r.rank).thenComparing(r -> r.firstField));
+        List<K> keys = new ArrayList<>(ranked.size());
+        for (Ranked<K> r : ranked) {
+            keys.add(r.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Gets the number of indexed records.
+     * @return int The record count.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return records.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects records with a word starting with the query's first word, in word order, verifying each.
+     * Callers hold the read lock.
+     * @param q The normalized query.
+     * @param max Stop once this many matches have been collected.
+     * @param seen Keys already examined; updated.
+     * @param ranked The matches collected so far; appended to.
+     */
+    private void collectWordMatches(String q, int max, Set<K> seen, List<Ranked<K>> ranked) {
+        int space = q.indexOf(' ');
+        String prefix = space < 0 ? q : q.substring(0, space);
+        for (Set<K> keys : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (K key : keys) {
+                if (ranked.size() >= max) return;
+                if (seen.add(key)) {
+                    addIfMatching(key, q, ranked);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects records whose substring fields contain the query elsewhere than at a word start, by walking
+     * the smallest trigram posting set and probing the others. Callers hold the read lock.
+     * @param q The normalized query, at least three characters long.
+     * @param max Stop once this many matches have been collected.
+     * @param seen Keys already examined; updated.
+     * @param ranked The matches collected so far; appended to.
+     */
+    private void collectSubstringMatches(String q, int max, Set<K> seen, List<Ranked<K>> ranked) {
+        List<Set<K>> sets = new ArrayList<>(q.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<K> posting = postings.get(q.substring(i, i + GRAM));
+            if (posting == null) return;
+            sets.add(posting);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        candidates:
+        for (K key : sets.get(0)) {
+            if (ranked.size() >= max) return;
+            for (int i = 1; i < sets.size(); i++) {
+                if (!sets.get(i).contains(key)) continue candidates;
+            }
+            if (seen.add(key)) {
+                addIfMatching(key, q, ranked);
+            }
+        }
+    }
+
+    private void addIfMatching(K key, String q, List<Ranked<K>> ranked) {
+        String[] fields = records.get(key);
+        int rank = rank(fields, q);
+        if (rank > 0) {
+            ranked.add(new Ranked<>(key, rank, fields[0]));
+        }
+    }
+
+    /**
+     * Scores how well a record matches a query.
+     * @param fields The record's normalized fields.
+     * @param q The normalized query.
+     * @return int The rank, higher is better, or 0 if the record does not match.
+     */
+    private int rank(String[] fields, String q) {
+        boolean anywhere = q.length() >= GRAM;
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int kind;
+            if (field.equals(q)) kind = 4;
+            else if (field.startsWith(q)) kind = 3;
+            else if (field.contains(" " + q)) kind = 2;
+            else if (anywhere && i < substringFields && field.contains(q)) kind = 1;
+            else continue;
+            best = Math.max(best, kind * fieldCount + (fieldCount - i));
+        }
+        return best;
+    }
+
+    /**
+     * Removes a record's key from the posting sets of its old fields, dropping sets that become empty.
+     * @param key The record key.
+     * @param fields The record's previously indexed fields.
+     */
+    private void unlink(K key, String[] fields) {
+        for (String gram : grams(fields)) {
+            unlink(postings, gram, key);
+        }
+        for (String word : wordsOf(fields)) {
+            unlink(words, word, key);
+        }
+    }
+
+    private static <K> void unlink(Map<String, Set<K>> map, String term, K key) {
+        Set<K> posting = map.get(term);
+        if (posting != null && posting.remove(key) && posting.isEmpty()) {
+            map.remove(term);
+        }
+    }
+
+    /**
+     * Lists the distinct trigrams of a record's substring fields.
+     * @param fields The normalized fields.
+     * @return Set<String> The trigrams.
+     */
+    private Set<String> grams(String[] fields) {
+        Set<String> grams = new HashSet<>();
+        for (int f = 0; f < substringFields; f++) {
+            String field = fields[f];
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Lists the distinct space-separated words of all of a record's fields.
+     * @param fields The normalized fields.
+     * @return Set<String> The words.
+     */
+    private static Set<String> wordsOf(String[] fields) {
+        Set<String> words = new HashSet<>();
+        for (String field : fields) {
+            for (String word : field.split(" ")) {
+                if (!word.isEmpty()) words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A matching key with its rank and first field, used for ordering results.
+     */
+    private static final class Ranked<K> {
+        private final K key;
+        private final int rank;
+        private final String firstField;
+
+        Ranked(K key, int rank, String firstField) {
+            this.key = key;
+            this.rank = rank;
+            this.firstField = firstField;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.smartclinic.util;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -10,7 +10,10 @@ import java.util.Map;
 public class SpecializationMapper {
 
     // A static map that stores the relationship between health issues and doctor specializations
-    private static final Map<String, String> issueToSpecialization = new HashMap<>();
+    private static final Map<String, String> issueToSpecialization = new LinkedHashMap<>();
+
+    // Aho-Corasick automaton over all keywords, built once after the map is populated
+    private static final KeywordMatcher<String> matcher;
 
     static {
         // Cardiology
@@ -91,25 +94,22 @@ public class SpecializationMapper {
         // Infectious Disease
         issueToSpecialization.put("infection",    "Infectious Disease Specialist");
         issueToSpecialization.put("fever",        "General Physician");
+
+        matcher = new KeywordMatcher<>(issueToSpecialization);
     }
 
     /**
      * Given an issue, returns the corresponding specialization for a doctor.
 
-     * This method performs a case-insensitive search to find the matching specialization for a health issue.
+     * This method performs a case-insensitive, single-pass scan for all known keywords in the issue.
+     * When several keywords occur, the longest one wins, and among equally long ones the earliest,
+     * so "heart" is preferred over the "ear" inside it.
      *
      * @param issue The health issue to be mapped to a specialization.
      * @return The specialization corresponding to the issue, or null if no match is found.
      */
     public static String getSpecialization(String issue) {
         if (issue == null) return null;  // Return null if the issue is null
-        String lowerCaseIssue = issue.toLowerCase();  // Convert the issue to lowercase to make it case-insensitive
-        // Loop through all the keys in the issueToSpecialization map and check if the issue contains any of the keywords
-        for (String keyword : issueToSpecialization.keySet()) {
-            if (lowerCaseIssue.contains(keyword)) {
-                return issueToSpecialization.get(keyword);  // Return the corresponding specialization
-            }
-        }
-        return null;  // Return null if no match is found
+        return matcher.findBest(issue);
     }
 }